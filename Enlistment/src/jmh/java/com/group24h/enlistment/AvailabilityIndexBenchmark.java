@@ -0,0 +1,98 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The open-sections query against a full scan of the subject's sections,
+ * and what keeping the index up to date adds to an enlistment.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityIndexBenchmark {
+    private static final int SUBJECTS = 200;
+
+    @Param({"50"})
+    int sectionsPerSubject;
+
+    Subject[] subjects;
+    List<Section> allSections;
+    AvailabilityIndex index;
+    Period morning;
+    Student student;
+    Section indexed;
+    Section unindexed;
+    int next;
+
+    @Setup
+    public void setUp() {
+        subjects = new Subject[SUBJECTS];
+        allSections = new ArrayList<>();
+        for (int s = 0; s < SUBJECTS; s++) {
+            subjects[s] = new Subject("SUBJ" + s, Collections.emptyList());
+            for (int i = 0; i < sectionsPerSubject; i++) {
+                int slot = i % BenchmarkCatalog.SLOTS;
+                Days days = Days.values()[slot / BenchmarkCatalog.HOURS_PER_DAY];
+                LocalTime start = LocalTime.of(8, 30).plusHours(slot % BenchmarkCatalog.HOURS_PER_DAY);
+                Section section = new Section("S" + s + "N" + i, Schedule.of(days, start, start.plusHours(1)),
+                        new Room("R" + s + "N" + i, 10 + i % 30), subjects[s]);
+                // a third of the sections start out full
+                if (i % 3 == 0) {
+                    for (int seat = 0; seat < section.getRoom().getCapacity(); seat++) {
+                        section.addEnlistedStudent();
+                    }
+                }
+                allSections.add(section);
+            }
+        }
+        index = new AvailabilityIndex(allSections);
+        morning = Period.of(LocalTime.of(8, 30), LocalTime.of(12, 30));
+        student = new Student(1);
+        indexed = allSections.get(1);
+        Subject lone = new Subject("LONE", Collections.emptyList());
+        unindexed = new Section("LONE", indexed.getSchedule(), new Room("RLONE", 100), lone);
+    }
+
+    @Benchmark
+    public List<Section> indexQuery() {
+        next = (next + 1) % SUBJECTS;
+        return index.openSections(subjects[next], Days.TF, morning, 10);
+    }
+
+    @Benchmark
+    public List<Section> fullScan() {
+        Subject subject = subjects[next = (next + 1) % SUBJECTS];
+        List<Section> open = new ArrayList<>();
+        for (Section section : allSections) {
+            Schedule schedule = section.getSchedule();
+            if (section.getSubject().equals(subject) && section.getAvailableSeats() > 0
+                    && schedule.getDays() == Days.TF
+                    && (schedule.getPeriod().getSlotMask() & ~morning.getSlotMask()) == 0) {
+                open.add(section);
+            }
+        }
+        open.sort((a, b) -> Integer.compare(b.getAvailableSeats(), a.getAvailableSeats()));
+        return open.subList(0, Math.min(10, open.size()));
+    }
+
+    @Benchmark
+    public void enlistAndCancelIndexed() {
+        student.tryEnlist(indexed);
+        student.cancelEnlistment(indexed);
+    }
+
+    @Benchmark
+    public void enlistAndCancelUnindexed() {
+        student.tryEnlist(unindexed);
+        student.cancelEnlistment(unindexed);
+    }
+}
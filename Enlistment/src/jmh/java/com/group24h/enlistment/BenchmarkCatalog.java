@@ -0,0 +1,52 @@
+package com.group24h.enlistment;
+
+import java.time.LocalTime;
+import java.util.Collections;
+
+/**
+ * Synthetic catalog shared by the benchmarks: one-hour sections laid out
+ * over every day pattern and hour of the week, each with its own subject,
+ * so that any student load built by {@link #loadFor} is conflict-free.
+ */
+final class BenchmarkCatalog {
+    static final int HOURS_PER_DAY = 9;
+    static final int SLOTS = Days.values().length * HOURS_PER_DAY;
+
+    final Section[][] sectionsBySlot;
+
+    BenchmarkCatalog(int sectionsPerSlot, int capacity) {
+        sectionsBySlot = new Section[SLOTS][sectionsPerSlot];
+        for (int slot = 0; slot < SLOTS; slot++) {
+            Days days = Days.values()[slot / HOURS_PER_DAY];
+            LocalTime start = LocalTime.of(8, 30).plusHours(slot % HOURS_PER_DAY);
+            Schedule schedule = Schedule.of(days, start, start.plusHours(1));
+            for (int i = 0; i < sectionsPerSlot; i++) {
+                String id = "S" + slot + "N" + i;
+                sectionsBySlot[slot][i] = new Section(id, schedule, new Room("R" + id, capacity),
+                        new Subject("SUBJ" + id, Collections.emptyList()));
+            }
+        }
+    }
+
+    /**
+     * @return {@code count} sections in distinct time slots for the given student
+     */
+    Section[] loadFor(int student, int count) {
+        Section[] load = new Section[count];
+        int sectionsPerSlot = sectionsBySlot[0].length;
+        for (int i = 0; i < count; i++) {
+            int slot = (student + i * 7) % SLOTS;
+            load[i] = sectionsBySlot[slot][(student / SLOTS + i) % sectionsPerSlot];
+        }
+        return load;
+    }
+
+    static Subject[] prerequisiteChain(int depth) {
+        Subject[] chain = new Subject[depth + 1];
+        chain[0] = new Subject("CHAIN0", Collections.emptyList());
+        for (int i = 1; i <= depth; i++) {
+            chain[i] = new Subject("CHAIN" + i, Collections.singletonList(chain[i - 1]));
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,80 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loads a full term: 2000 subjects in prerequisite chains, 50k sections in
+ * 2800 rooms and 100k students with their completed subjects.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CatalogLoaderBenchmark {
+    static final int SUBJECTS = 2000;
+    static final int SECTIONS = 50_000;
+    static final int STUDENTS = 100_000;
+    // three 90-minute periods a day on each of the three day patterns
+    static final int SECTIONS_PER_ROOM = 18;
+
+    Path dir;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        dir = Files.createTempDirectory("catalog");
+        Random random = new Random(42);
+        try (BufferedWriter rooms = Files.newBufferedWriter(dir.resolve(CatalogLoader.ROOMS))) {
+            for (int room = 0; room <= SECTIONS / SECTIONS_PER_ROOM; room++) {
+                rooms.write("R" + room + "," + (20 + random.nextInt(40)) + "\n");
+            }
+        }
+        try (BufferedWriter subjects = Files.newBufferedWriter(dir.resolve(CatalogLoader.SUBJECTS))) {
+            // listed last to first so the loader has to order them
+            for (int subject = SUBJECTS - 1; subject >= 0; subject--) {
+                subjects.write("SUBJ" + subject + "," + (subject % 10 == 0 ? "" : "SUBJ" + (subject - 1)) + "\n");
+            }
+        }
+        try (BufferedWriter sections = Files.newBufferedWriter(dir.resolve(CatalogLoader.SECTIONS))) {
+            Days[] days = Days.values();
+            for (int section = 0; section < SECTIONS; section++) {
+                int slot = section % SECTIONS_PER_ROOM;
+                int startMinute = 8 * 60 + 30 + (slot % 6) * 90;
+                sections.write("S" + section + ",SUBJ" + random.nextInt(SUBJECTS) + ",R" + section / SECTIONS_PER_ROOM +
+                        "," + days[slot / 6] + "," + time(startMinute) + "," + time(startMinute + 90) + "\n");
+            }
+        }
+        try (BufferedWriter students = Files.newBufferedWriter(dir.resolve(CatalogLoader.STUDENTS))) {
+            for (int student = 0; student < STUDENTS; student++) {
+                int chain = random.nextInt(SUBJECTS / 10) * 10;
+                students.write(student + ",SUBJ" + chain + ";SUBJ" + (chain + 1) + ";SUBJ" + (chain + 2) + "\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public CatalogLoader loadTerm() throws IOException {
+        return new CatalogLoader(new RoomLedger()).load(dir);
+    }
+
+    private static String time(int minuteOfDay) {
+        return minuteOfDay / 60 + ":" + (minuteOfDay % 60 == 0 ? "00" : "30");
+    }
+}
@@ -0,0 +1,78 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the open morning sections of a 50k-section term straight from a
+ * snapshot, against restoring the term's sections first and scanning them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CatalogSnapshotBenchmark {
+    private static final int SUBJECTS = 1000;
+    private static final int SECTIONS = 50_000;
+
+    CatalogSnapshot snapshot;
+    CatalogSnapshot.SectionView view;
+    List<Subject> restoredSubjects;
+    long morning;
+
+    @Setup
+    public void setUp() {
+        List<Subject> subjects = new ArrayList<>();
+        for (int s = 0; s < SUBJECTS; s++) {
+            subjects.add(new Subject("SUBJ" + s, Collections.emptyList()));
+        }
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            int slot = i % BenchmarkCatalog.SLOTS;
+            Days days = Days.values()[slot / BenchmarkCatalog.HOURS_PER_DAY];
+            LocalTime start = LocalTime.of(8, 30).plusHours(slot % BenchmarkCatalog.HOURS_PER_DAY);
+            Section section = new Section("S" + i, Schedule.of(days, start, start.plusHours(1)),
+                    new Room("R" + i, 20 + i % 30), subjects.get(i % SUBJECTS), i % 3 == 0 ? 20 + i % 30 : i % 20);
+            sections.add(section);
+        }
+        ByteBuffer encoded = CatalogSnapshot.encode(subjects, sections, Collections.emptyList());
+        snapshot = CatalogSnapshot.wrap(ByteBuffer.allocateDirect(encoded.remaining()).put(encoded).flip());
+        view = snapshot.sectionView();
+        restoredSubjects = snapshot.restoreSubjects(new SubjectCatalog());
+        long morningSlots = Period.of(LocalTime.of(8, 30), LocalTime.of(12, 30)).getSlotMask();
+        for (Days days : Days.values()) {
+            morning |= morningSlots << (days.ordinal() * Period.SLOTS_PER_DAY);
+        }
+    }
+
+    @Benchmark
+    public int scanSnapshot() {
+        int open = 0;
+        for (int i = 0; i < snapshot.getSectionCount(); i++) {
+            view.at(i);
+            if (view.getAvailableSeats() > 0 && (view.getOccupancy() & ~morning) == 0) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    @Benchmark
+    public int restoreAndScan() {
+        int open = 0;
+        for (Section section : snapshot.restoreSections(restoredSubjects)) {
+            if (section.getAvailableSeats() > 0 && (section.getSchedule().getOccupancy() & ~morning) == 0) {
+                open++;
+            }
+        }
+        return open;
+    }
+}
@@ -0,0 +1,45 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConflictBenchmark {
+    Section section;
+    Section noConflict;
+    Section overlapping;
+
+    @Setup
+    public void setUp() {
+        Room room = new Room("R1", 40);
+        section = new Section("A", new Schedule(Days.MTH, new Period(LocalTime.of(10, 0), LocalTime.of(11, 30))),
+                room, new Subject("SUBJA", Collections.emptyList()));
+        noConflict = new Section("B", new Schedule(Days.MTH, new Period(LocalTime.of(11, 30), LocalTime.of(13, 0))),
+                room, new Subject("SUBJB", Collections.emptyList()));
+        overlapping = new Section("C", new Schedule(Days.MTH, new Period(LocalTime.of(11, 0), LocalTime.of(12, 0))),
+                room, new Subject("SUBJC", Collections.emptyList()));
+    }
+
+    @Benchmark
+    public void checkForConflictNone() {
+        section.checkForConflict(noConflict);
+    }
+
+    @Benchmark
+    public void checkForConflictOverlapping(Blackhole blackhole) {
+        try {
+            section.checkForConflict(overlapping);
+        } catch (ScheduleConflictException e) {
+            blackhole.consume(e);
+        }
+    }
+}
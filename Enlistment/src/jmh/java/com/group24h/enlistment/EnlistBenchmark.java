@@ -0,0 +1,86 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enlists a student in their whole load and cancels it again, cycling over
+ * the population so that the state is the same before every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnlistBenchmark {
+
+    @Param({"10000", "100000"})
+    int students;
+
+    @Param({"1", "5", "10"})
+    int sectionsPerStudent;
+
+    Student[] population;
+    Section[][] loads;
+    Section hotSection;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+        int step;
+
+        @Setup
+        public void setUp(EnlistBenchmark benchmark, org.openjdk.jmh.infra.BenchmarkParams params) {
+            next = benchmark.threadIds.getAndIncrement();
+            step = params.getThreads();
+        }
+
+        int next(int bound) {
+            int current = next;
+            next = (next + step) % bound;
+            return current;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        BenchmarkCatalog catalog = new BenchmarkCatalog(20, students);
+        population = new Student[students];
+        loads = new Section[students][];
+        for (int i = 0; i < students; i++) {
+            population[i] = new Student(i);
+            loads[i] = catalog.loadFor(i, sectionsPerStudent);
+        }
+        hotSection = catalog.sectionsBySlot[0][0];
+    }
+
+    @Benchmark
+    public void enlistAndCancel(Cursor cursor) {
+        int i = cursor.next(students);
+        Student student = population[i];
+        for (Section section : loads[i]) {
+            student.enlist(section);
+        }
+        for (Section section : loads[i]) {
+            student.cancelEnlistment(section);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enlistAndCancelContended(Cursor cursor) {
+        enlistAndCancel(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enlistAndCancelHotSection(Cursor cursor) {
+        Student student = population[cursor.next(students)];
+        student.enlist(hotSection);
+        student.cancelEnlistment(hotSection);
+    }
+}
@@ -0,0 +1,52 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One enlistment and its cancellation with the metrics switched off and on,
+ * to show what the instrumentation adds per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"noop", "recording", "timing-every-call"})
+    String metrics;
+
+    Student student;
+    Section section;
+
+    @Setup
+    public void setUp() {
+        BenchmarkCatalog catalog = new BenchmarkCatalog(1, 1);
+        student = new Student(1);
+        section = catalog.sectionsBySlot[0][0];
+        switch (metrics) {
+            case "recording":
+                EnlistmentMetrics.install(EnlistmentMetrics.recording());
+                break;
+            case "timing-every-call":
+                EnlistmentMetrics.install(EnlistmentMetrics.recording(1));
+                break;
+            default:
+                EnlistmentMetrics.install(EnlistmentMetrics.NOOP);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        EnlistmentMetrics.install(EnlistmentMetrics.NOOP);
+    }
+
+    @Benchmark
+    public void enlistAndCancel() {
+        student.tryEnlist(section);
+        student.cancelEnlistment(section);
+    }
+}
@@ -0,0 +1,37 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PeriodBenchmark {
+    LocalTime start = LocalTime.of(10, 0);
+    LocalTime end = LocalTime.of(11, 30);
+
+    @Benchmark
+    public Period newPeriod() {
+        return new Period(start, end);
+    }
+
+    @Benchmark
+    public Schedule newSchedule() {
+        return new Schedule(Days.TF, new Period(start, end));
+    }
+
+    @Benchmark
+    public Period periodOf() {
+        return Period.of(start, end);
+    }
+
+    @Benchmark
+    public Schedule scheduleOf() {
+        return Schedule.of(Days.TF, start, end);
+    }
+}
@@ -0,0 +1,46 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prerequisite checks at the end of a chain of {@code depth} subjects, for a
+ * student who completed the whole chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrerequisiteBenchmark {
+
+    @Param({"1", "10", "100"})
+    int depth;
+
+    Subject last;
+    SubjectSet completed;
+    Student student;
+
+    @Setup
+    public void setUp() {
+        Subject[] chain = BenchmarkCatalog.prerequisiteChain(depth);
+        last = chain[depth];
+        completed = new SubjectSet();
+        Arrays.stream(chain, 0, depth).forEach(subject -> completed.add(subject.getId()));
+        student = new Student(1, Collections.emptyList(), Arrays.asList(chain).subList(0, depth));
+    }
+
+    @Benchmark
+    public void checkPrerequisites() {
+        last.checkPrerequisites(completed);
+    }
+
+    @Benchmark
+    public boolean isEligibleFor() {
+        return student.isEligibleFor(last);
+    }
+}
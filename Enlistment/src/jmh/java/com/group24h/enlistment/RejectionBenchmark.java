@@ -0,0 +1,62 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning away a student from a full section through the throwing
+ * and the result-returning enlistment paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+    Student student;
+    Section full;
+    Section conflicting;
+
+    @Setup
+    public void setUp() {
+        Schedule schedule = Schedule.of(Days.MTH, LocalTime.of(10, 0), LocalTime.of(11, 30));
+        student = new Student(1);
+        student.enlist(new Section("A", schedule, new Room("R1", 40), new Subject("SUBJA", Collections.emptyList())));
+        full = new Section("B", Schedule.of(Days.TF, LocalTime.of(10, 0), LocalTime.of(11, 30)),
+                new Room("R2", 1), new Subject("SUBJB", Collections.emptyList()), 1);
+        conflicting = new Section("C", schedule, new Room("R3", 40), new Subject("SUBJC", Collections.emptyList()));
+    }
+
+    @Benchmark
+    public void enlistFullSection(Blackhole blackhole) {
+        try {
+            student.enlist(full);
+        } catch (CapacityException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public EnlistmentResult tryEnlistFullSection() {
+        return student.tryEnlist(full);
+    }
+
+    @Benchmark
+    public void enlistConflictingSection(Blackhole blackhole) {
+        try {
+            student.enlist(conflicting);
+        } catch (ScheduleConflictException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public EnlistmentResult tryEnlistConflictingSection() {
+        return student.tryEnlist(conflicting);
+    }
+}
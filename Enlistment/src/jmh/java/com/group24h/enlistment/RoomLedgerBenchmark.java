@@ -0,0 +1,50 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free-room lookups over a campus of {@code rooms} rooms, each already
+ * booked for a handful of random hours of the week.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoomLedgerBenchmark {
+
+    @Param({"1000", "5000"})
+    int rooms;
+
+    RoomLedger ledger;
+    Schedule wanted;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        BenchmarkCatalog catalog = new BenchmarkCatalog(1, 1);
+        Subject subject = new Subject("LEDGER", Collections.emptyList());
+        ledger = new RoomLedger();
+        for (int i = 0; i < rooms; i++) {
+            Room room = new Room("R" + i, 10 + random.nextInt(60));
+            for (int booking = 0; booking < 8; booking++) {
+                Schedule schedule = catalog.sectionsBySlot[random.nextInt(BenchmarkCatalog.SLOTS)][0].getSchedule();
+                if (ledger.isFree(room, schedule)) {
+                    ledger.book(new Section("S" + i + "B" + booking, schedule, room, subject));
+                }
+            }
+        }
+        wanted = catalog.sectionsBySlot[4][0].getSchedule();
+    }
+
+    @Benchmark
+    public List<Room> findFreeRooms() {
+        return ledger.findFreeRooms(wanted, 40);
+    }
+}
@@ -0,0 +1,67 @@
+package com.group24h.enlistment;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Places a synthetic term of {@code sections} sections of one to two hours,
+ * about four per subject, into rooms of 20 to 60 seats with roughly 20%
+ * slack on the grid, and re-solves it after ten sections changed.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimetableSolverBenchmark {
+    static final Duration BUDGET = Duration.ofSeconds(30);
+
+    @Param({"1000", "5000"})
+    int sections;
+
+    TimetableSolver solver;
+    List<SectionDemand> demands;
+    List<SectionDemand> changed;
+    TimetablePlan solved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Room> rooms = new ArrayList<>();
+        // about 13 three-slot sections fit a room, keep a fifth of the grid free
+        for (int i = 0; i < sections / 10; i++) {
+            rooms.add(new Room("R" + i, 20 + random.nextInt(41)));
+        }
+        Subject[] subjects = new Subject[sections / 4];
+        for (int i = 0; i < subjects.length; i++) {
+            subjects[i] = new Subject("SUBJ" + i, Collections.emptyList());
+        }
+        demands = new ArrayList<>();
+        for (int i = 0; i < sections; i++) {
+            demands.add(new SectionDemand("S" + i, subjects[random.nextInt(subjects.length)],
+                    15 + random.nextInt(40), 2 + random.nextInt(3)));
+        }
+        changed = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SectionDemand demand = demands.get(random.nextInt(sections));
+            changed.add(new SectionDemand(demand.getSectionId(), demand.getSubject(),
+                    15 + random.nextInt(40), 2 + random.nextInt(3)));
+        }
+        solver = new TimetableSolver(rooms);
+        solved = solver.solve(demands, BUDGET);
+    }
+
+    @Benchmark
+    public TimetablePlan solve() {
+        return solver.solve(demands, BUDGET);
+    }
+
+    @Benchmark
+    public TimetablePlan resolveTenChanged() {
+        return solver.resolve(solved, changed, Collections.emptyList(), BUDGET);
+    }
+}
@@ -0,0 +1,140 @@
+package com.group24h.enlistment;
+
+import com.group24h.enlistment.AdmissionRejectedException.Reason;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Decides which commands an {@link EnlistmentEngine} queues at all. Each
+ * student gets a token bucket, and the commands queued per section and in
+ * total are bounded; anything over a limit fails at once with a retry-after
+ * hint instead of waiting behind work that is already late. Keeping the
+ * queues short keeps the latency of the commands that do get in flat
+ * however many clients pile on.
+ *
+ * The token bucket is kept as the time at which the student's bucket will
+ * be full again (the generic cell rate algorithm), one atomic long per
+ * student. A token is spent even when the command is then turned away by
+ * a queue bound, so clients that hammer a busy section slow themselves
+ * down. Queue hints are estimated from the recent time a command takes to
+ * run.
+ */
+final class AdmissionControl {
+    private static final long MIN_RETRY_NANOS = 1_000_000;
+
+    private final int maxQueued;
+    private final int maxQueuedPerSection;
+    private final long emissionNanos;
+    private final long burstToleranceNanos;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentMap<Section, AtomicInteger> queuedBySection = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // moving average of how long a command runs
+    private final AtomicLong serviceNanos = new AtomicLong(MIN_RETRY_NANOS / 10);
+    private final LongAdder[] rejected = new LongAdder[Reason.values().length];
+
+    /**
+     * @param maxQueued           commands queued or running at once over all sections
+     * @param maxQueuedPerSection commands queued or running at once for one section
+     * @param commandsPerSecond   sustained rate allowed per student
+     * @param burst               commands a student may send at once after being idle
+     */
+    AdmissionControl(int maxQueued, int maxQueuedPerSection, double commandsPerSecond, int burst) {
+        isTrue(maxQueued > 0, "maxQueued must be positive, was: %d", maxQueued);
+        isTrue(maxQueuedPerSection > 0, "maxQueuedPerSection must be positive, was: %d", maxQueuedPerSection);
+        isTrue(commandsPerSecond > 0, "commandsPerSecond must be positive, was: %s", commandsPerSecond);
+        isTrue(burst > 0, "burst must be positive, was: %d", burst);
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerSection = maxQueuedPerSection;
+        this.emissionNanos = Math.max(1, (long) (1e9 / commandsPerSecond));
+        this.burstToleranceNanos = emissionNanos * (burst - 1);
+        for (int i = 0; i < rejected.length; i++) {
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Lets a command for the student and section in, or throws. An admitted
+     * command must be {@link #release released} once it has run.
+     */
+    void admit(Student student, Section section) {
+        long now = System.nanoTime();
+        long waitNanos = takeToken(student.getStudentNumber(), now);
+        if (waitNanos > 0) {
+            throw reject(Reason.RATE_LIMITED, waitNanos);
+        }
+        AtomicInteger forSection = queuedBySection.computeIfAbsent(section, key -> new AtomicInteger());
+        int sectionQueue = tryIncrement(forSection, maxQueuedPerSection);
+        if (sectionQueue >= 0) {
+            // commands for one section run one after the other
+            throw reject(Reason.SECTION_BUSY, sectionQueue * serviceNanos.get());
+        }
+        int totalQueue = tryIncrement(queued, maxQueued);
+        if (totalQueue >= 0) {
+            forSection.decrementAndGet();
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            throw reject(Reason.OVERLOADED, totalQueue * serviceNanos.get() / parallelism);
+        }
+    }
+
+    void release(Section section, long ranForNanos) {
+        queuedBySection.get(section).decrementAndGet();
+        queued.decrementAndGet();
+        long average = serviceNanos.get();
+        serviceNanos.set(average + (ranForNanos - average) / 8);
+    }
+
+    long getRejected(Reason reason) {
+        return rejected[reason.ordinal()].sum();
+    }
+
+    int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return 0 if the student had a token, otherwise how long until they will have one
+     */
+    private long takeToken(int studentNumber, long now) {
+        AtomicLong bucket = buckets.computeIfAbsent(studentNumber, key -> new AtomicLong(now));
+        while (true) {
+            long fullAt = bucket.get();
+            long from = Math.max(fullAt, now);
+            long ahead = from - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (bucket.compareAndSet(fullAt, from + emissionNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return -1 if the counter was below the limit and was incremented, otherwise its value
+     */
+    private static int tryIncrement(AtomicInteger counter, int limit) {
+        while (true) {
+            int current = counter.get();
+            if (current >= limit) {
+                return current;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return -1;
+            }
+        }
+    }
+
+    private AdmissionRejectedException reject(Reason reason, long retryAfterNanos) {
+        rejected[reason.ordinal()].increment();
+        return new AdmissionRejectedException(reason, Duration.ofNanos(Math.max(MIN_RETRY_NANOS, retryAfterNanos)));
+    }
+}
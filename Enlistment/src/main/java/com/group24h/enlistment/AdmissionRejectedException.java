@@ -0,0 +1,36 @@
+package com.group24h.enlistment;
+
+import java.time.Duration;
+
+/**
+ * An enlistment command turned away by {@link AdmissionControl} before it
+ * was queued, with a hint of when trying again is likely to succeed.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    enum Reason {
+        /** The student sent commands faster than their rate limit allows. */
+        RATE_LIMITED,
+        /** The section has as many commands queued as it may. */
+        SECTION_BUSY,
+        /** The engine as a whole has as many commands queued as it may. */
+        OVERLOADED
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    AdmissionRejectedException(Reason reason, Duration retryAfter) {
+        // shed under overload, so as cheap as an exception gets
+        super(reason + ", retry after " + retryAfter.toMillis() + " ms", null, false, false);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    Reason getReason() {
+        return reason;
+    }
+
+    Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,173 @@
+package com.group24h.enlistment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Open sections of each subject, most free seats first, kept up to date as
+ * students enlist and cancel.
+ *
+ * Every indexed section reports its seat changes to the index, which moves
+ * the section to its new position in its subject's sorted set; a full
+ * section drops out and comes back once a seat frees up. Queries walk the
+ * sorted set from the top and stop after {@code limit} matches, so they
+ * never look at full sections or at other subjects. The seat counts are
+ * only hints under concurrent enlistment, like
+ * {@link Section#getAvailableSeats()}.
+ *
+ * Changes to the same section are coalesced: a thread that reports a
+ * change while another is already updating the section's entry leaves it
+ * to that thread and returns at once, so enlistments never wait on the
+ * index.
+ */
+final class AvailabilityIndex {
+    private static final Comparator<Entry> MOST_SEATS_FIRST = Comparator
+            .comparingInt((Entry entry) -> -entry.remaining)
+            .thenComparingInt(entry -> entry.slot.section.getIndex());
+
+    private final ConcurrentMap<Subject, ConcurrentSkipListSet<Entry>> bySubject = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Section, Slot> slots = new ConcurrentHashMap<>();
+
+    AvailabilityIndex() {
+    }
+
+    AvailabilityIndex(Collection<Section> sections) {
+        addAll(sections);
+    }
+
+    void add(Section section) {
+        notNull(section, "section cannot be null");
+        Slot slot = new Slot(section, bySubject.computeIfAbsent(section.getSubject(),
+                subject -> new ConcurrentSkipListSet<>(MOST_SEATS_FIRST)));
+        if (slots.putIfAbsent(section, slot) == null) {
+            section.addSeatListener(slot);
+            slot.refresh();
+        }
+    }
+
+    void addAll(Collection<Section> sections) {
+        notNull(sections, "sections cannot be null");
+        sections.forEach(this::add);
+    }
+
+    void remove(Section section) {
+        notNull(section, "section cannot be null");
+        Slot slot = slots.remove(section);
+        if (slot != null) {
+            section.removeSeatListener(slot);
+            slot.removed = true;
+            slot.refresh();
+        }
+    }
+
+    /**
+     * Up to {@code limit} sections of the subject that still have a free
+     * seat, most free seats first.
+     */
+    List<Section> openSections(Subject subject, int limit) {
+        return openSections(subject, null, null, limit);
+    }
+
+    /**
+     * Same as {@link #openSections(Subject, int)} but only sections that
+     * meet on the given days and lie entirely within the given period.
+     *
+     * @param days   null for any days
+     * @param within null for any time of day
+     */
+    List<Section> openSections(Subject subject, Days days, Period within, int limit) {
+        notNull(subject, "subject cannot be null");
+        isTrue(limit > 0, "limit must be positive, was: %d", limit);
+        ConcurrentSkipListSet<Entry> entries = bySubject.get(subject);
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        int outside = within == null ? 0 : ~within.getSlotMask();
+        List<Section> open = new ArrayList<>(Math.min(limit, 16));
+        for (Entry entry : entries) {
+            // an entry being replaced can be seen next to its replacement, only the current one counts
+            if (entry.slot.current != entry) {
+                continue;
+            }
+            Schedule schedule = entry.slot.section.getSchedule();
+            if ((days == null || schedule.getDays() == days)
+                    && (schedule.getPeriod().getSlotMask() & outside) == 0) {
+                open.add(entry.slot.section);
+                if (open.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Free seats of the section as last indexed, 0 if it is full or not indexed.
+     */
+    int remainingSeats(Section section) {
+        Slot slot = slots.get(section);
+        Entry entry = slot == null ? null : slot.current;
+        return entry == null ? 0 : entry.remaining;
+    }
+
+    private static final class Slot implements SeatListener {
+        final Section section;
+        final ConcurrentSkipListSet<Entry> entries;
+        // changes reported but not yet applied; whoever raises it from 0 applies them
+        final AtomicInteger pending = new AtomicInteger();
+        volatile Entry current;
+        volatile boolean removed;
+
+        Slot(Section section, ConcurrentSkipListSet<Entry> entries) {
+            this.section = section;
+            this.entries = entries;
+        }
+
+        @Override
+        public void seatsChanged(Section changed) {
+            refresh();
+        }
+
+        void refresh() {
+            if (pending.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                update();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void update() {
+            int remaining = removed ? 0 : Math.max(0, section.getAvailableSeats());
+            Entry old = current;
+            if (old == null ? remaining == 0 : old.remaining == remaining) {
+                return;
+            }
+            Entry replacement = remaining == 0 ? null : new Entry(this, remaining);
+            if (replacement != null) {
+                entries.add(replacement);
+            }
+            current = replacement;
+            if (old != null) {
+                entries.remove(old);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final Slot slot;
+        final int remaining;
+
+        Entry(Slot slot, int remaining) {
+            this.slot = slot;
+            this.remaining = remaining;
+        }
+    }
+}
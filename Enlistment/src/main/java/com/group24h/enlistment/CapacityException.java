@@ -0,0 +1,8 @@
+package com.group24h.enlistment;
+
+public class CapacityException extends RuntimeException {
+    CapacityException(String msg) {
+        // no stack trace, a full section is routine and its exception is reused
+        super(msg, null, false, false);
+    }
+}
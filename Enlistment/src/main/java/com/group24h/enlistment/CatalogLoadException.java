@@ -0,0 +1,20 @@
+package com.group24h.enlistment;
+
+import java.util.List;
+
+public class CatalogLoadException extends RuntimeException {
+    private final List<String> errors;
+
+    CatalogLoadException(String msg, List<String> errors) {
+        super(msg);
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+     * The problems found, one per offending line, at most
+     * {@link CatalogLoader#MAX_ERRORS} of them.
+     */
+    List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,512 @@
+package com.group24h.enlistment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Bulk loader for a term's catalog, one comma-separated file per kind of record:
+ *
+ * <pre>
+ * rooms.csv      roomName,capacity
+ * subjects.csv   subjectId,prerequisiteId;prerequisiteId;...
+ * sections.csv   sectionId,subjectId,roomName,days,start,end      (MTH,8:30,10:00)
+ * students.csv   studentNumber,completedSubjectId;completedSubjectId;...
+ * </pre>
+ *
+ * Blank lines and lines starting with {@code #} are skipped. Every file is
+ * memory-mapped in chunks that end on a line break and the chunks are parsed
+ * in parallel straight from the mapped bytes, so only the records themselves
+ * end up on the heap. References to rooms and subjects are resolved by id
+ * against the files loaded before, which is why they have to be loaded in
+ * the order above. Subjects may be listed in any order; they are created
+ * prerequisites first, in a {@link SubjectCatalog} of the loader's own that
+ * the loaded students share.
+ *
+ * A bad line does not stop the file from being read. All problems in a file
+ * are collected and thrown together as a {@link CatalogLoadException} once
+ * the file is done. Every section is booked in the {@link RoomLedger}, so
+ * two sections in the same room at the same time are reported too.
+ */
+final class CatalogLoader {
+    static final String ROOMS = "rooms.csv";
+    static final String SUBJECTS = "subjects.csv";
+    static final String SECTIONS = "sections.csv";
+    static final String STUDENTS = "students.csv";
+    static final int MAX_ERRORS = 100;
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_FIELDS = 8;
+
+    private final RoomLedger ledger;
+    private final int chunkSize;
+    private final SubjectCatalog catalog = new SubjectCatalog();
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Subject> subjects = new ConcurrentHashMap<>();
+    private final Map<String, Section> sections = new ConcurrentHashMap<>();
+    private final Map<Integer, Student> students = new ConcurrentHashMap<>();
+
+    CatalogLoader(RoomLedger ledger) {
+        this(ledger, DEFAULT_CHUNK_SIZE);
+    }
+
+    CatalogLoader(RoomLedger ledger, int chunkSize) {
+        notNull(ledger, "ledger cannot be null");
+        isTrue(chunkSize > 0, "chunkSize must be positive, was: %d", chunkSize);
+        this.ledger = ledger;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the four files from the directory, in dependency order.
+     */
+    CatalogLoader load(Path directory) throws IOException {
+        notNull(directory, "directory cannot be null");
+        loadRooms(directory.resolve(ROOMS));
+        loadSubjects(directory.resolve(SUBJECTS));
+        loadSections(directory.resolve(SECTIONS));
+        loadStudents(directory.resolve(STUDENTS));
+        return this;
+    }
+
+    void loadRooms(Path file) throws IOException {
+        Errors errors = new Errors(file);
+        parse(file, errors, (fields, line) -> {
+            fields.expect(2);
+            String roomName = fields.string(0);
+            Room room = new Room(roomName, fields.integer(1));
+            if (rooms.putIfAbsent(roomName, room) != null) {
+                throw new IllegalArgumentException("duplicate room " + roomName);
+            }
+            ledger.addRoom(room);
+        });
+        errors.throwIfAny();
+    }
+
+    void loadSubjects(Path file) throws IOException {
+        Errors errors = new Errors(file);
+        Queue<SubjectRow> rows = new ConcurrentLinkedQueue<>();
+        parse(file, errors, (fields, line) -> {
+            fields.expect(2);
+            rows.add(new SubjectRow(fields.string(0), fields.list(1), line));
+        });
+        createPrerequisitesFirst(rows, errors);
+        errors.throwIfAny();
+    }
+
+    void loadSections(Path file) throws IOException {
+        Errors errors = new Errors(file);
+        parse(file, errors, (fields, line) -> {
+            fields.expect(6);
+            String sectionId = fields.string(0);
+            Subject subject = resolve(subjects, fields.string(1), "subject");
+            Room room = resolve(rooms, fields.string(2), "room");
+            Days days = fields.days(3);
+            Schedule schedule = Schedule.of(days, fields.time(4), fields.time(5));
+            Section section = new Section(sectionId, schedule, room, subject);
+            // booked first, so a section whose room is taken never shows up among the sections
+            ledger.book(section);
+            if (sections.putIfAbsent(sectionId, section) != null) {
+                ledger.release(section);
+                throw new IllegalArgumentException("duplicate section " + sectionId);
+            }
+        });
+        errors.throwIfAny();
+    }
+
+    void loadStudents(Path file) throws IOException {
+        Errors errors = new Errors(file);
+        parse(file, errors, (fields, line) -> {
+            fields.expect(2);
+            int studentNumber = fields.integer(0);
+            List<Subject> completed = new ArrayList<>();
+            for (String subjectId : fields.list(1)) {
+                completed.add(resolve(subjects, subjectId, "subject"));
+            }
+            Student student = new Student(catalog, studentNumber, Collections.emptyList(), completed);
+            if (students.putIfAbsent(studentNumber, student) != null) {
+                throw new IllegalArgumentException("duplicate student " + studentNumber);
+            }
+        });
+        errors.throwIfAny();
+    }
+
+    Map<String, Room> getRooms() {
+        return Collections.unmodifiableMap(rooms);
+    }
+
+    SubjectCatalog getSubjectCatalog() {
+        return catalog;
+    }
+
+    Map<String, Subject> getSubjects() {
+        return Collections.unmodifiableMap(subjects);
+    }
+
+    Map<String, Section> getSections() {
+        return Collections.unmodifiableMap(sections);
+    }
+
+    Map<Integer, Student> getStudents() {
+        return Collections.unmodifiableMap(students);
+    }
+
+    private static <T> T resolve(Map<String, T> loaded, String id, String kind) {
+        T value = loaded.get(id);
+        if (value == null) {
+            throw new IllegalArgumentException("unknown " + kind + " " + id);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the subjects in topological order of their prerequisites.
+     * Subjects in a cycle, or depending on one that could not be created,
+     * are reported instead.
+     */
+    private void createPrerequisitesFirst(Collection<SubjectRow> rows, Errors errors) {
+        Map<String, SubjectRow> byId = new HashMap<>();
+        for (SubjectRow row : rows) {
+            if (byId.putIfAbsent(row.subjectId, row) != null || subjects.containsKey(row.subjectId)) {
+                errors.add(row.line, "duplicate subject " + row.subjectId);
+                row.invalid = true;
+            }
+        }
+        Map<String, List<SubjectRow>> dependents = new HashMap<>();
+        Deque<SubjectRow> ready = new ArrayDeque<>();
+        for (SubjectRow row : rows) {
+            if (row.invalid) {
+                continue;
+            }
+            for (String prerequisite : row.prerequisites) {
+                if (!byId.containsKey(prerequisite) && !subjects.containsKey(prerequisite)) {
+                    errors.add(row.line, "unknown prerequisite " + prerequisite + " of subject " + row.subjectId);
+                    row.invalid = true;
+                } else if (!subjects.containsKey(prerequisite)) {
+                    dependents.computeIfAbsent(prerequisite, id -> new ArrayList<>()).add(row);
+                    row.pending++;
+                }
+            }
+            if (!row.invalid && row.pending == 0) {
+                ready.add(row);
+            }
+        }
+        while (!ready.isEmpty()) {
+            SubjectRow row = ready.poll();
+            List<Subject> prerequisites = new ArrayList<>(row.prerequisites.size());
+            row.prerequisites.forEach(id -> prerequisites.add(subjects.get(id)));
+            subjects.put(row.subjectId, new Subject(catalog, row.subjectId, prerequisites));
+            for (SubjectRow dependent : dependents.getOrDefault(row.subjectId, Collections.emptyList())) {
+                if (!dependent.invalid && --dependent.pending == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        for (SubjectRow row : rows) {
+            if (!row.invalid && !subjects.containsKey(row.subjectId)) {
+                errors.add(row.line, "prerequisites of subject " + row.subjectId +
+                        " form a cycle or include an invalid subject");
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about {@code chunkSize} bytes that end
+     * on a line break, counts the lines of every chunk in parallel so each
+     * knows its first line number, and then parses all chunks in parallel.
+     */
+    private void parse(Path file, Errors errors, LineParser parser) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<MappedByteBuffer> chunks = split(channel);
+            long[] firstLines = new long[chunks.size()];
+            long[] lineCounts = IntStream.range(0, chunks.size()).parallel()
+                    .mapToLong(i -> countLines(chunks.get(i)))
+                    .toArray();
+            for (int i = 1; i < chunks.size(); i++) {
+                firstLines[i] = firstLines[i - 1] + lineCounts[i - 1];
+            }
+            IntStream.range(0, chunks.size()).parallel()
+                    .forEach(i -> parseChunk(chunks.get(i), firstLines[i] + 1, errors, parser));
+        }
+    }
+
+    private List<MappedByteBuffer> split(FileChannel channel) throws IOException {
+        List<MappedByteBuffer> chunks = new ArrayList<>();
+        long size = channel.size();
+        long start = 0;
+        ByteBuffer probe = ByteBuffer.allocate(256);
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            // extend the chunk to just past the next line break
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int lineBreak = -1;
+                for (int i = 0; i < read && lineBreak < 0; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineBreak = i;
+                    }
+                }
+                if (lineBreak >= 0) {
+                    end += lineBreak + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+            }
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long countLines(ByteBuffer chunk) {
+        long lines = 0;
+        for (int i = 0, limit = chunk.limit(); i < limit; i++) {
+            if (chunk.get(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static void parseChunk(ByteBuffer chunk, long firstLine, Errors errors, LineParser parser) {
+        Fields fields = new Fields(chunk);
+        long line = firstLine;
+        int position = 0;
+        int limit = chunk.limit();
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (fields.split(position, lineEnd)) {
+                try {
+                    parser.parse(fields, line);
+                } catch (RuntimeException e) {
+                    errors.add(line, e.getMessage());
+                }
+            }
+            position = lineEnd + 1;
+            line++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineParser {
+        void parse(Fields fields, long line);
+    }
+
+    private static final class SubjectRow {
+        final String subjectId;
+        final List<String> prerequisites;
+        final long line;
+        int pending;
+        boolean invalid;
+
+        SubjectRow(String subjectId, List<String> prerequisites, long line) {
+            this.subjectId = subjectId;
+            this.prerequisites = prerequisites;
+            this.line = line;
+        }
+    }
+
+    /**
+     * The comma-separated fields of the current line, read directly from the
+     * mapped chunk. Reused for every line of a chunk.
+     */
+    private static final class Fields {
+        private final ByteBuffer chunk;
+        private final int[] starts = new int[MAX_FIELDS];
+        private final int[] ends = new int[MAX_FIELDS];
+        private byte[] scratch = new byte[64];
+        private int count;
+
+        Fields(ByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        /**
+         * @return false for a blank or comment line
+         */
+        boolean split(int lineStart, int lineEnd) {
+            count = 0;
+            int start = lineStart;
+            for (int i = lineStart; i <= lineEnd; i++) {
+                if (i == lineEnd || chunk.get(i) == ',') {
+                    if (count < MAX_FIELDS) {
+                        starts[count] = trimStart(start, i);
+                        ends[count] = trimEnd(starts[count], i);
+                    }
+                    count++;
+                    start = i + 1;
+                }
+            }
+            return !(count == 1 && starts[0] == ends[0]) && chunk.get(starts[0]) != '#';
+        }
+
+        void expect(int fields) {
+            if (count != fields) {
+                throw new IllegalArgumentException("expected " + fields + " fields but found " + count);
+            }
+        }
+
+        String string(int field) {
+            int length = ends[field] - starts[field];
+            if (length == 0) {
+                throw new IllegalArgumentException("field " + (field + 1) + " is empty");
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                scratch[i] = chunk.get(starts[field] + i);
+            }
+            return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        }
+
+        int integer(int field) {
+            int start = starts[field];
+            int end = ends[field];
+            if (start == end) {
+                throw new IllegalArgumentException("field " + (field + 1) + " is empty");
+            }
+            long value = 0;
+            for (int i = start; i < end; i++) {
+                int digit = chunk.get(i) - '0';
+                if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("not a number: " + string(field));
+                }
+                value = value * 10 + digit;
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("not a number: " + string(field));
+            }
+            return (int) value;
+        }
+
+        /**
+         * Parses {@code H:mm} or {@code HH:mm}.
+         */
+        LocalTime time(int field) {
+            int start = starts[field];
+            int length = ends[field] - start;
+            int colon = length - 3;
+            if ((length != 4 && length != 5) || chunk.get(start + colon) != ':') {
+                throw new IllegalArgumentException("not a time: " + string(field));
+            }
+            int hour = digit(start) * (colon == 2 ? 10 : 1) + (colon == 2 ? digit(start + 1) : 0);
+            int minute = digit(start + colon + 1) * 10 + digit(start + colon + 2);
+            if (hour > 23 || minute > 59) {
+                throw new IllegalArgumentException("not a time: " + string(field));
+            }
+            return LocalTime.of(hour, minute);
+        }
+
+        Days days(int field) {
+            String days = string(field);
+            for (Days candidate : Days.values()) {
+                if (candidate.name().equals(days)) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("unknown days " + days);
+        }
+
+        /**
+         * Splits the field on semicolons. An empty field is an empty list.
+         */
+        List<String> list(int field) {
+            if (starts[field] == ends[field]) {
+                return Collections.emptyList();
+            }
+            List<String> values = new ArrayList<>();
+            for (String value : string(field).split(";")) {
+                String trimmed = value.trim();
+                if (!trimmed.isEmpty()) {
+                    values.add(trimmed);
+                }
+            }
+            return values;
+        }
+
+        private int digit(int position) {
+            int digit = chunk.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("not a digit: " + (char) chunk.get(position));
+            }
+            return digit;
+        }
+
+        private int trimStart(int start, int end) {
+            while (start < end && chunk.get(start) <= ' ') {
+                start++;
+            }
+            return start;
+        }
+
+        private int trimEnd(int start, int end) {
+            while (end > start && chunk.get(end - 1) <= ' ') {
+                end--;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Problems found in one file, kept up to {@link #MAX_ERRORS} so a
+     * completely broken file cannot use up the heap.
+     */
+    private static final class Errors {
+        private final Path file;
+        private final List<Problem> problems = new ArrayList<>();
+        private final AtomicLong total = new AtomicLong();
+
+        Errors(Path file) {
+            this.file = file;
+        }
+
+        void add(long line, String message) {
+            total.incrementAndGet();
+            synchronized (this) {
+                if (problems.size() < MAX_ERRORS) {
+                    problems.add(new Problem(line, message));
+                }
+            }
+        }
+
+        synchronized void throwIfAny() {
+            if (problems.isEmpty()) {
+                return;
+            }
+            problems.sort(Comparator.comparingLong(problem -> problem.line));
+            List<String> messages = new ArrayList<>(problems.size());
+            for (Problem problem : problems) {
+                messages.add(file.getFileName() + ":" + problem.line + ": " + problem.message);
+            }
+            throw new CatalogLoadException(total.get() + " invalid lines in " + file + ", first: " + messages.get(0),
+                    messages);
+        }
+    }
+
+    private static final class Problem {
+        final long line;
+        final String message;
+
+        Problem(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
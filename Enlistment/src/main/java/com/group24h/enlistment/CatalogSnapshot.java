@@ -0,0 +1,519 @@
+package com.group24h.enlistment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Fixed-layout binary form of a catalog: subjects, sections with their
+ * rooms, schedules and seat counts, and students with their sections and
+ * completed subjects. A snapshot can be shipped between processes or kept
+ * on disk, and read in place: the views returned by {@link #subjectView()},
+ * {@link #sectionView()} and {@link #studentView()} are flyweights that
+ * read each field straight from the buffer when asked, so scanning a
+ * snapshot of any size allocates nothing but the views, unless strings are
+ * read.
+ *
+ * Layout, all little-endian ints unless noted:
+ * <pre>
+ * header    magic, version, subjects, sections, students, poolOffset, stringsOffset, stringsLength
+ * subject   name, prerequisites, prerequisiteCount                                        12 bytes
+ * section   sectionId, subject, roomName, capacity, enlisted,
+ *           days, startSlot, endSlot, padding (bytes), occupancy (long)                    32 bytes
+ * student   studentNumber, sections, sectionCount, completed, completedCount              20 bytes
+ * pool      ints referenced by the list fields above, as positions in the pool
+ * strings   short length and UTF-8 bytes, referenced by their offset in this area
+ * </pre>
+ * Subjects and sections refer to each other by their position in the
+ * snapshot, not by their ids in this JVM.
+ */
+final class CatalogSnapshot {
+    private static final int MAGIC = 0x454E4C43;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SUBJECT_SIZE = 12;
+    private static final int SECTION_SIZE = 32;
+    private static final int STUDENT_SIZE = 20;
+
+    private final ByteBuffer buffer;
+    private final int subjectCount;
+    private final int sectionCount;
+    private final int studentCount;
+    private final int sectionsOffset;
+    private final int studentsOffset;
+    private final int poolOffset;
+    private final int stringsOffset;
+
+    private CatalogSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        isTrue(buffer.capacity() >= HEADER_SIZE, "snapshot too short: %d bytes", buffer.capacity());
+        isTrue(buffer.getInt(0) == MAGIC, "not a catalog snapshot");
+        isTrue(buffer.getInt(4) == VERSION, "unsupported catalog snapshot version: %d", buffer.getInt(4));
+        this.subjectCount = buffer.getInt(8);
+        this.sectionCount = buffer.getInt(12);
+        this.studentCount = buffer.getInt(16);
+        this.poolOffset = buffer.getInt(20);
+        this.stringsOffset = buffer.getInt(24);
+        this.sectionsOffset = HEADER_SIZE + subjectCount * SUBJECT_SIZE;
+        this.studentsOffset = sectionsOffset + sectionCount * SECTION_SIZE;
+        isTrue(poolOffset == studentsOffset + studentCount * STUDENT_SIZE
+                        && stringsOffset >= poolOffset
+                        && (long) stringsOffset + buffer.getInt(28) == buffer.capacity(),
+                "corrupt catalog snapshot header");
+    }
+
+    /**
+     * Reads a snapshot in place. The buffer is not copied and must not change
+     * while the snapshot is in use.
+     */
+    static CatalogSnapshot wrap(ByteBuffer buffer) {
+        notNull(buffer, "buffer cannot be null");
+        return new CatalogSnapshot(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Maps a snapshot file read-only; the file is paged in as it is read.
+     */
+    static CatalogSnapshot map(Path file) throws IOException {
+        notNull(file, "file cannot be null");
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            return wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Encodes the catalog. The subjects must all be in one
+     * {@link SubjectCatalog}, along with the students. Every prerequisite of
+     * the subjects and every subject of the sections must be among the
+     * subjects given, and every section of the students among the sections
+     * given.
+     */
+    static ByteBuffer encode(List<Subject> subjects, List<Section> sections, List<Student> students) {
+        notNull(subjects, "subjects cannot be null");
+        notNull(sections, "sections cannot be null");
+        notNull(students, "students cannot be null");
+        SubjectCatalog catalog = subjects.isEmpty() ? null : subjects.get(0).getCatalog();
+        Map<Integer, Integer> subjectPositions = new HashMap<>();
+        for (int i = 0; i < subjects.size(); i++) {
+            Subject subject = subjects.get(i);
+            isTrue(subject.getCatalog() == catalog, "subject %s is not in the catalog of %s", subject, subjects.get(0));
+            subjectPositions.put(subject.getId(), i);
+        }
+        Map<Section, Integer> sectionPositions = new IdentityHashMap<>();
+        for (int i = 0; i < sections.size(); i++) {
+            sectionPositions.put(sections.get(i), i);
+        }
+
+        Strings strings = new Strings();
+        IntPool pool = new IntPool();
+        int poolOffset = HEADER_SIZE + subjects.size() * SUBJECT_SIZE
+                + sections.size() * SECTION_SIZE + students.size() * STUDENT_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(poolOffset).order(ByteOrder.LITTLE_ENDIAN);
+        records.position(HEADER_SIZE);
+        for (Subject subject : subjects) {
+            int prerequisites = pool.size();
+            int count = pool.addAll(subject.getPrerequisiteIds(), subjectPositions, subject.getCatalog(), subject);
+            records.putInt(strings.add(subject.getSubjectId())).putInt(prerequisites).putInt(count);
+        }
+        for (Section section : sections) {
+            Integer subject = section.getSubject().getCatalog() == catalog
+                    ? subjectPositions.get(section.getSubject().getId()) : null;
+            isTrue(subject != null, "subject %s of section %s is not in the snapshot", section.getSubject(), section);
+            Schedule schedule = section.getSchedule();
+            int slotMask = schedule.getPeriod().getSlotMask();
+            records.putInt(strings.add(section.getSectionId()))
+                    .putInt(subject)
+                    .putInt(strings.add(section.getRoom().getRoomName()))
+                    .putInt(section.getRoom().getCapacity())
+                    .putInt(section.getNumberOfStudents())
+                    .put((byte) schedule.getDays().ordinal())
+                    .put((byte) Integer.numberOfTrailingZeros(slotMask))
+                    .put((byte) (Integer.SIZE - Integer.numberOfLeadingZeros(slotMask)))
+                    .put((byte) 0)
+                    .putLong(schedule.getOccupancy());
+        }
+        for (Student student : students) {
+            isTrue(catalog == null || student.getCatalog() == catalog, "%s is not in the catalog of the subjects", student);
+            StudentSchedule schedule = student.getSections();
+            int studentSections = pool.size();
+            for (Section section : schedule) {
+                Integer position = sectionPositions.get(section);
+                isTrue(position != null, "section %s of %s is not in the snapshot", section, student);
+                pool.add(position);
+            }
+            int completed = pool.size();
+            int completedCount = pool.addAll(student.getCompletedSubjects(), subjectPositions, student.getCatalog(), student);
+            records.putInt(student.getStudentNumber())
+                    .putInt(studentSections).putInt(schedule.size())
+                    .putInt(completed).putInt(completedCount);
+        }
+
+        int stringsOffset = poolOffset + pool.size() * Integer.BYTES;
+        byte[] stringBytes = strings.toByteArray();
+        ByteBuffer snapshot = ByteBuffer.allocate(stringsOffset + stringBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        records.putInt(0, MAGIC).putInt(4, VERSION)
+                .putInt(8, subjects.size()).putInt(12, sections.size()).putInt(16, students.size())
+                .putInt(20, poolOffset).putInt(24, stringsOffset).putInt(28, stringBytes.length);
+        snapshot.put(records.array());
+        for (int i = 0; i < pool.size(); i++) {
+            snapshot.putInt(pool.get(i));
+        }
+        snapshot.put(stringBytes);
+        return snapshot.flip();
+    }
+
+    /**
+     * Writes the encoded catalog to a file, replacing it atomically.
+     */
+    static void write(Path file, List<Subject> subjects, List<Section> sections, List<Student> students) throws IOException {
+        notNull(file, "file cannot be null");
+        ByteBuffer snapshot = encode(subjects, sections, students);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    }
+
+    int getSubjectCount() {
+        return subjectCount;
+    }
+
+    int getSectionCount() {
+        return sectionCount;
+    }
+
+    int getStudentCount() {
+        return studentCount;
+    }
+
+    SubjectView subjectView() {
+        return new SubjectView();
+    }
+
+    SectionView sectionView() {
+        return new SectionView();
+    }
+
+    StudentView studentView() {
+        return new StudentView();
+    }
+
+    /**
+     * Creates the snapshot's subjects in the catalog, prerequisites first,
+     * and returns them in snapshot order.
+     */
+    List<Subject> restoreSubjects(SubjectCatalog catalog) {
+        notNull(catalog, "catalog cannot be null");
+        Subject[] restored = new Subject[subjectCount];
+        SubjectView view = subjectView();
+        for (int i = 0; i < subjectCount; i++) {
+            restoreSubject(catalog, i, restored, view, new ArrayDeque<>());
+        }
+        return Arrays.asList(restored);
+    }
+
+    private void restoreSubject(SubjectCatalog catalog, int position, Subject[] restored, SubjectView view,
+                                Deque<Integer> path) {
+        if (restored[position] != null) {
+            return;
+        }
+        isTrue(!path.contains(position), "prerequisite cycle through subject %d", position);
+        path.push(position);
+        view.at(position);
+        int[] prerequisitePositions = new int[view.getPrerequisiteCount()];
+        for (int i = 0; i < prerequisitePositions.length; i++) {
+            prerequisitePositions[i] = view.getPrerequisite(i);
+        }
+        List<Subject> prerequisites = new ArrayList<>(prerequisitePositions.length);
+        for (int prerequisite : prerequisitePositions) {
+            restoreSubject(catalog, prerequisite, restored, view, path);
+            prerequisites.add(restored[prerequisite]);
+        }
+        restored[position] = new Subject(catalog, view.at(position).getSubjectId(), prerequisites);
+        path.pop();
+    }
+
+    /**
+     * Creates the snapshot's sections in snapshot order, one room per room
+     * name. Seats held by the snapshot's students are left free, to be
+     * taken again by {@link #restoreStudents}; all other enlisted seats are
+     * taken.
+     */
+    List<Section> restoreSections(List<Subject> subjects) {
+        notNull(subjects, "subjects cannot be null");
+        int[] studentSeats = new int[sectionCount];
+        StudentView student = studentView();
+        for (int i = 0; i < studentCount; i++) {
+            student.at(i);
+            for (int s = 0; s < student.getSectionCount(); s++) {
+                studentSeats[student.getSection(s)]++;
+            }
+        }
+        Map<String, Room> rooms = new HashMap<>();
+        List<Section> sections = new ArrayList<>(sectionCount);
+        SectionView view = sectionView();
+        for (int i = 0; i < sectionCount; i++) {
+            view.at(i);
+            int capacity = view.getCapacity();
+            Room room = rooms.computeIfAbsent(view.getRoomName(), name -> new Room(name, capacity));
+            Period period = Period.of(Period.toTime(view.getStartSlot()), Period.toTime(view.getEndSlot()));
+            sections.add(new Section(view.getSectionId(), Schedule.of(view.getDays(), period), room,
+                    subjects.get(view.getSubject()), view.getEnlisted() - studentSeats[i]));
+        }
+        return sections;
+    }
+
+    /**
+     * Creates the snapshot's students in the catalog the subjects were
+     * restored in and enlists them again, without validation, in the
+     * sections restored from this snapshot.
+     */
+    List<Student> restoreStudents(SubjectCatalog catalog, List<Subject> subjects, List<Section> sections) {
+        notNull(catalog, "catalog cannot be null");
+        notNull(subjects, "subjects cannot be null");
+        notNull(sections, "sections cannot be null");
+        List<Student> students = new ArrayList<>(studentCount);
+        StudentView view = studentView();
+        for (int i = 0; i < studentCount; i++) {
+            view.at(i);
+            List<Subject> completed = new ArrayList<>(view.getCompletedCount());
+            for (int c = 0; c < view.getCompletedCount(); c++) {
+                completed.add(subjects.get(view.getCompletedSubject(c)));
+            }
+            Student student = new Student(catalog, view.getStudentNumber(), Collections.emptyList(), completed);
+            for (int s = 0; s < view.getSectionCount(); s++) {
+                student.restoreEnlistment(sections.get(view.getSection(s)));
+            }
+            students.add(student);
+        }
+        return students;
+    }
+
+    private String string(int offset) {
+        int at = stringsOffset + offset;
+        int length = Short.toUnsignedInt(buffer.getShort(at));
+        byte[] bytes = new byte[length];
+        buffer.get(at + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int poolInt(int index) {
+        return buffer.getInt(poolOffset + index * Integer.BYTES);
+    }
+
+    private static void checkIndex(int index, int count, String kind) {
+        // tested before calling isTrue, whose varargs would box on every read
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("no " + kind + " at " + index + ", snapshot has " + count);
+        }
+    }
+
+    final class SubjectView {
+        private int base;
+
+        private SubjectView() {
+        }
+
+        SubjectView at(int index) {
+            checkIndex(index, subjectCount, "subject");
+            base = HEADER_SIZE + index * SUBJECT_SIZE;
+            return this;
+        }
+
+        String getSubjectId() {
+            return string(buffer.getInt(base));
+        }
+
+        int getPrerequisiteCount() {
+            return buffer.getInt(base + 8);
+        }
+
+        /**
+         * @return the snapshot position of the subject's i-th prerequisite
+         */
+        int getPrerequisite(int i) {
+            checkIndex(i, getPrerequisiteCount(), "prerequisite");
+            return poolInt(buffer.getInt(base + 4) + i);
+        }
+    }
+
+    final class SectionView {
+        private int base;
+
+        private SectionView() {
+        }
+
+        SectionView at(int index) {
+            checkIndex(index, sectionCount, "section");
+            base = sectionsOffset + index * SECTION_SIZE;
+            return this;
+        }
+
+        String getSectionId() {
+            return string(buffer.getInt(base));
+        }
+
+        /**
+         * @return the snapshot position of the section's subject
+         */
+        int getSubject() {
+            return buffer.getInt(base + 4);
+        }
+
+        String getRoomName() {
+            return string(buffer.getInt(base + 8));
+        }
+
+        int getCapacity() {
+            return buffer.getInt(base + 12);
+        }
+
+        int getEnlisted() {
+            return buffer.getInt(base + 16);
+        }
+
+        int getAvailableSeats() {
+            return getCapacity() - getEnlisted();
+        }
+
+        Days getDays() {
+            return Days.values()[buffer.get(base + 20)];
+        }
+
+        int getStartSlot() {
+            return buffer.get(base + 21);
+        }
+
+        int getEndSlot() {
+            return buffer.get(base + 22);
+        }
+
+        /**
+         * Same bits as {@link Schedule#getOccupancy()}.
+         */
+        long getOccupancy() {
+            return buffer.getLong(base + 24);
+        }
+    }
+
+    final class StudentView {
+        private int base;
+
+        private StudentView() {
+        }
+
+        StudentView at(int index) {
+            checkIndex(index, studentCount, "student");
+            base = studentsOffset + index * STUDENT_SIZE;
+            return this;
+        }
+
+        int getStudentNumber() {
+            return buffer.getInt(base);
+        }
+
+        int getSectionCount() {
+            return buffer.getInt(base + 8);
+        }
+
+        /**
+         * @return the snapshot position of the student's i-th section
+         */
+        int getSection(int i) {
+            checkIndex(i, getSectionCount(), "section");
+            return poolInt(buffer.getInt(base + 4) + i);
+        }
+
+        int getCompletedCount() {
+            return buffer.getInt(base + 16);
+        }
+
+        /**
+         * @return the snapshot position of the student's i-th completed subject
+         */
+        int getCompletedSubject(int i) {
+            checkIndex(i, getCompletedCount(), "completed subject");
+            return poolInt(buffer.getInt(base + 12) + i);
+        }
+    }
+
+    /**
+     * String area under construction, each distinct string stored once.
+     */
+    private static final class Strings {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String value) {
+            Integer offset = offsets.get(value);
+            if (offset != null) {
+                return offset;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            isTrue(encoded.length <= 0xFFFF, "string too long for a snapshot: %d bytes", encoded.length);
+            int added = bytes.size();
+            bytes.write(encoded.length & 0xFF);
+            bytes.write(encoded.length >>> 8);
+            bytes.write(encoded, 0, encoded.length);
+            offsets.put(value, added);
+            return added;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class IntPool {
+        private int[] ints = new int[256];
+        private int size;
+
+        void add(int value) {
+            if (size == ints.length) {
+                ints = Arrays.copyOf(ints, size * 2);
+            }
+            ints[size++] = value;
+        }
+
+        /**
+         * Adds the snapshot positions of the subjects in the set.
+         *
+         * @return how many were added
+         */
+        int addAll(SubjectSet subjectIds, Map<Integer, Integer> positions, SubjectCatalog catalog, Object owner) {
+            int added = 0;
+            for (int id = subjectIds.nextSetBit(0); id >= 0; id = subjectIds.nextSetBit(id + 1)) {
+                Integer position = positions.get(id);
+                if (position == null) {
+                    throw new IllegalArgumentException("subject " + catalog.get(id) + " of " + owner + " is not in the snapshot");
+                }
+                add(position);
+                added++;
+            }
+            return added;
+        }
+
+        int get(int index) {
+            return ints[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.group24h.enlistment;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable snapshot of the student numbers enlisted in a section, sorted.
+ * Every change publishes a new snapshot with the next version, so readers
+ * never lock and never see a list that is being modified.
+ */
+final class ClassList {
+    static final ClassList EMPTY = new ClassList(new int[0], 0);
+
+    private final int[] studentNumbers;
+    private final long version;
+
+    private ClassList(int[] studentNumbers, long version) {
+        this.studentNumbers = studentNumbers;
+        this.version = version;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int size() {
+        return studentNumbers.length;
+    }
+
+    boolean isEmpty() {
+        return studentNumbers.length == 0;
+    }
+
+    /**
+     * The student number at the given position, in increasing order.
+     */
+    int get(int index) {
+        return studentNumbers[index];
+    }
+
+    boolean contains(int studentNumber) {
+        return Arrays.binarySearch(studentNumbers, studentNumber) >= 0;
+    }
+
+    void forEach(IntConsumer action) {
+        for (int studentNumber : studentNumbers) {
+            action.accept(studentNumber);
+        }
+    }
+
+    IntStream stream() {
+        return Arrays.stream(studentNumbers);
+    }
+
+    /**
+     * @return this list if the student is already on it
+     */
+    ClassList with(int studentNumber) {
+        int index = Arrays.binarySearch(studentNumbers, studentNumber);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        int[] added = new int[studentNumbers.length + 1];
+        System.arraycopy(studentNumbers, 0, added, 0, insertAt);
+        added[insertAt] = studentNumber;
+        System.arraycopy(studentNumbers, insertAt, added, insertAt + 1, studentNumbers.length - insertAt);
+        return new ClassList(added, version + 1);
+    }
+
+    /**
+     * @return this list if the student is not on it
+     */
+    ClassList without(int studentNumber) {
+        int index = Arrays.binarySearch(studentNumbers, studentNumber);
+        if (index < 0) {
+            return this;
+        }
+        int[] removed = new int[studentNumbers.length - 1];
+        System.arraycopy(studentNumbers, 0, removed, 0, index);
+        System.arraycopy(studentNumbers, index + 1, removed, index, studentNumbers.length - index - 1);
+        return new ClassList(removed, version + 1);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(studentNumbers);
+    }
+}
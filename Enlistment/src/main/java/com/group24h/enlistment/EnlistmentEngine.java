@@ -0,0 +1,210 @@
+package com.group24h.enlistment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Asynchronous front door for enlistment commands.
+ *
+ * Every command is routed to the mailbox of the section it targets, so the
+ * commands for one section run one after the other while commands for other
+ * sections run in parallel. A hot section therefore only queues up its own
+ * traffic. Commands that touch the same student from different sections are
+ * kept consistent by the student itself.
+ *
+ * With a journal, every successful command is appended to it on the
+ * mailbox and its future completes once the journal is on disk. Only
+ * commands that go through the engine are journaled.
+ *
+ * With admission control, enlistments in a section that is already full
+ * are rejected before they are queued, and the others only get in within
+ * the limits of the {@link AdmissionControl}; the rest fail at once with an
+ * {@link AdmissionRejectedException}. Cancellations free seats, so they
+ * are always let in.
+ */
+class EnlistmentEngine implements AutoCloseable {
+    private final ExecutorService executor;
+    private final EnlistmentJournal journal;
+    private final AdmissionControl admission;
+    private final ConcurrentMap<Section, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    EnlistmentEngine() {
+        this(newVirtualThreadExecutor());
+    }
+
+    EnlistmentEngine(ExecutorService executor) {
+        this(executor, null);
+    }
+
+    /**
+     * @param journal where successful commands are logged before their futures
+     *                complete, or null to keep state in memory only
+     */
+    EnlistmentEngine(ExecutorService executor, EnlistmentJournal journal) {
+        this(executor, journal, null);
+    }
+
+    /**
+     * @param admission limits on the commands queued, or null to queue everything
+     */
+    EnlistmentEngine(ExecutorService executor, EnlistmentJournal journal, AdmissionControl admission) {
+        notNull(executor, "executor cannot be null");
+        this.executor = executor;
+        this.journal = journal;
+        this.admission = admission;
+    }
+
+    CompletableFuture<Void> enlist(Student student, Section section) {
+        notNull(student, "student cannot be null");
+        if (isFullOnArrival(section)) {
+            return CompletableFuture.failedFuture(section.capacityExceeded());
+        }
+        return submit(student, section, () -> {
+            student.enlist(section);
+            return journalEnlist(student, section, null);
+        });
+    }
+
+    /**
+     * Like {@link #enlist} but completes with the result of
+     * {@link Student#tryEnlist(Section)} instead of failing on a rejection.
+     */
+    CompletableFuture<EnlistmentResult> tryEnlist(Student student, Section section) {
+        notNull(student, "student cannot be null");
+        if (isFullOnArrival(section)) {
+            return CompletableFuture.completedFuture(EnlistmentResult.SECTION_FULL);
+        }
+        return submit(student, section, () -> {
+            EnlistmentResult result = student.tryEnlist(section);
+            return result.isSuccess()
+                    ? journalEnlist(student, section, result)
+                    : CompletableFuture.completedFuture(result);
+        });
+    }
+
+    /**
+     * Like {@link #tryEnlist} but joins the section's waitlist when it is full,
+     * completing once the student was offered a seat.
+     */
+    CompletableFuture<EnlistmentResult> enlistOrWaitlist(Student student, Section section) {
+        notNull(student, "student cannot be null");
+        return submit(student, section, () -> student.enlistOrWaitlist(section))
+                .thenCompose(result -> result.isSuccess()
+                        ? journalEnlist(student, section, result)
+                        : CompletableFuture.completedFuture(result));
+    }
+
+    CompletableFuture<Void> cancel(Student student, Section section) {
+        notNull(student, "student cannot be null");
+        return submit(null, section, () -> {
+            student.cancelEnlistment(section);
+            return journal == null
+                    ? CompletableFuture.completedFuture(null)
+                    : journal.commit(journal.appendCancel(student, section));
+        });
+    }
+
+    private <T> CompletableFuture<T> journalEnlist(Student student, Section section, T value) {
+        if (journal == null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        return journal.commit(journal.appendEnlist(student, section)).thenApply(ignored -> value);
+    }
+
+    private boolean isFullOnArrival(Section section) {
+        notNull(section, "section cannot be null");
+        return admission != null && section.getAvailableSeats() <= 0;
+    }
+
+    /**
+     * Runs the command on the section's mailbox. The command itself returns a
+     * future, for the part of its work, such as the journal commit, that
+     * finishes off the mailbox.
+     *
+     * @param student the student to admit the command for, or null to let it in regardless
+     */
+    private <T> CompletableFuture<T> submit(Student student, Section section, Supplier<CompletableFuture<T>> command) {
+        notNull(section, "section cannot be null");
+        validState(!closed, "engine is closed");
+        boolean admitted = admission != null && student != null;
+        if (admitted) {
+            try {
+                admission.admit(student, section);
+            } catch (AdmissionRejectedException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailboxFor(section).submit(() -> {
+            long started = admitted ? System.nanoTime() : 0;
+            CompletableFuture<T> pending;
+            try {
+                pending = command.get();
+            } catch (RuntimeException e) {
+                pending = CompletableFuture.failedFuture(e);
+            } finally {
+                if (admitted) {
+                    // the queue slot is free once the mailbox is done, waiting on the journal or waitlist does not hold it
+                    admission.release(section, System.nanoTime() - started);
+                }
+            }
+            // completed only after the release, so a caller never sees its command done but still queued
+            pending.whenComplete((value, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+
+    private Mailbox mailboxFor(Section section) {
+        Mailbox mailbox = mailboxes.get(section);
+        return mailbox != null ? mailbox : mailboxes.computeIfAbsent(section, key -> new Mailbox(executor));
+    }
+
+    /**
+     * Stops accepting commands, waits for the queued ones to finish and shuts
+     * the executor down.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        List<CompletableFuture<Void>> drained = new ArrayList<>();
+        for (Mailbox mailbox : mailboxes.values()) {
+            CompletableFuture<Void> marker = new CompletableFuture<>();
+            mailbox.submit(() -> marker.complete(null));
+            drained.add(marker);
+        }
+        drained.forEach(CompletableFuture::join);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * One virtual thread per task when the runtime has them (Java 21+), a
+     * work-stealing pool otherwise. Looked up reflectively so the build does
+     * not require a newer JDK.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newWorkStealingPool();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.group24h.enlistment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Append-only log of enlistments and cancellations, with snapshots, so that
+ * enlistment state survives a restart.
+ *
+ * Records are written into a memory-mapped journal file one chunk at a time.
+ * Appending only copies bytes into the mapping; durability is requested
+ * separately with {@link #commit(long)}, and a single flusher thread forces
+ * the mapping for every commit that arrived since its last force (group
+ * commit), so concurrent writers share one fsync.
+ *
+ * A snapshot stores every student's sections together with the journal
+ * position it was started at. Recovery maps the latest snapshot and replays
+ * only the journal after that position. Replay does not validate and is
+ * idempotent per student and section, so operations that made it into the
+ * snapshot as well as into the journal tail are harmless.
+ *
+ * File layout: a header of magic, version and chunk size, then records of
+ * {@code length, op, studentNumber, sectionId length, sectionId, crc32}. A
+ * record never crosses a chunk boundary; the rest of a chunk is skipped
+ * after a padding marker.
+ */
+class EnlistmentJournal implements AutoCloseable {
+    static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    private static final int MAGIC = 0x454E4C4A;
+    private static final int SNAPSHOT_MAGIC = 0x454E4C53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int PADDING = -1;
+    private static final byte ENLIST = 1;
+    private static final byte CANCEL = 2;
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final int chunkSize;
+
+    private final Object appendLock = new Object();
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private final List<MappedByteBuffer> unforced = new ArrayList<>();
+    private volatile long writePosition;
+
+    private final Queue<CompletableFuture<Void>> commits = new ConcurrentLinkedQueue<>();
+    private volatile long durablePosition;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    private interface Operation {
+        void apply(byte op, int studentNumber, String sectionId);
+    }
+
+    private EnlistmentJournal(Path directory, FileChannel channel, int chunkSize, long end) throws IOException {
+        this.directory = directory;
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.chunkStart = end - end % chunkSize;
+        this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        this.chunk.position((int) (end - chunkStart));
+        this.writePosition = end;
+        this.durablePosition = end;
+        this.flusher = new Thread(this::flushLoop, "enlistment-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    static EnlistmentJournal open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the journal in the given directory, creating it if needed. The
+     * chunk size only applies to a new journal; an existing one keeps the
+     * size it was created with.
+     */
+    static EnlistmentJournal open(Path directory, int chunkSize) throws IOException {
+        notNull(directory, "directory cannot be null");
+        isTrue(chunkSize >= 4096, "chunkSize must be at least 4096, was: %d", chunkSize);
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(JOURNAL_FILE), CREATE, READ, WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(chunkSize);
+            header.flip();
+            channel.write(header, 0);
+            return new EnlistmentJournal(directory, channel, chunkSize, HEADER_SIZE);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        header.flip();
+        isTrue(header.getInt() == MAGIC, "not an enlistment journal: %s", directory);
+        isTrue(header.getInt() == VERSION, "unsupported journal version in %s", directory);
+        int storedChunkSize = header.getInt();
+        long end = scan(channel, storedChunkSize, HEADER_SIZE, null);
+        return new EnlistmentJournal(directory, channel, storedChunkSize, end);
+    }
+
+    long appendEnlist(Student student, Section section) {
+        return append(ENLIST, student.getStudentNumber(), section.getSectionId());
+    }
+
+    long appendCancel(Student student, Section section) {
+        return append(CANCEL, student.getStudentNumber(), section.getSectionId());
+    }
+
+    /**
+     * Copies a record into the mapped journal.
+     *
+     * @return the journal position right after the record, to pass to {@link #commit(long)}
+     */
+    private long append(byte op, int studentNumber, String sectionId) {
+        byte[] id = sectionId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 + 2 + id.length);
+        payload.put(op).putInt(studentNumber).putShort((short) id.length).put(id);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        int length = payload.capacity() + 4;
+        isTrue(4 + length <= chunkSize - HEADER_SIZE, "sectionId too long for the journal: %s", sectionId);
+
+        synchronized (appendLock) {
+            validState(!closed, "journal is closed");
+            if (chunk.remaining() < 4 + length) {
+                nextChunk();
+            }
+            chunk.putInt(length).put(payload.array()).putInt((int) crc.getValue());
+            long position = chunkStart + chunk.position();
+            writePosition = position;
+            return position;
+        }
+    }
+
+    private void nextChunk() {
+        if (chunk.remaining() >= 4) {
+            chunk.putInt(PADDING);
+        }
+        unforced.add(chunk);
+        chunkStart += chunkSize;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, chunkSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return a future that completes once everything up to {@code position} is on disk
+     */
+    CompletableFuture<Void> commit(long position) {
+        if (position <= durablePosition) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> commit = new CompletableFuture<>();
+        commits.add(commit);
+        LockSupport.unpark(flusher);
+        if (closed && position <= durablePosition) {
+            // the flusher may already be gone, close() forced everything
+            commit.complete(null);
+        }
+        return commit;
+    }
+
+    private void flushLoop() {
+        List<CompletableFuture<Void>> batch = new ArrayList<>();
+        while (!closed || !commits.isEmpty()) {
+            CompletableFuture<Void> commit;
+            while ((commit = commits.poll()) != null) {
+                batch.add(commit);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            // every commit in the batch was requested after its record was appended,
+            // so forcing up to the current write position covers all of them
+            try {
+                durablePosition = force();
+                batch.forEach(done -> done.complete(null));
+            } catch (RuntimeException e) {
+                batch.forEach(failed -> failed.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private long force() {
+        List<MappedByteBuffer> buffers;
+        long position;
+        synchronized (appendLock) {
+            buffers = new ArrayList<>(unforced);
+            unforced.clear();
+            buffers.add(chunk);
+            position = writePosition;
+        }
+        buffers.forEach(MappedByteBuffer::force);
+        return position;
+    }
+
+    /**
+     * Writes a snapshot of the given students' enlistments and removes the
+     * older snapshots. Operations may keep running while it is written.
+     */
+    void snapshot(Collection<Student> students) throws IOException {
+        notNull(students, "students cannot be null");
+        long position = writePosition;
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+        try (FileChannel out = FileChannel.open(temp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(position).putInt(students.size());
+            for (Student student : students) {
+                Collection<Section> sections = student.getSections();
+                buffer = ensure(out, buffer, 8);
+                buffer.putInt(student.getStudentNumber()).putInt(sections.size());
+                for (Section section : sections) {
+                    byte[] id = section.getSectionId().getBytes(StandardCharsets.UTF_8);
+                    buffer = ensure(out, buffer, 2 + id.length);
+                    buffer.putShort((short) id.length).put(id);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_PREFIX + position + SNAPSHOT_SUFFIX), ATOMIC_MOVE, REPLACE_EXISTING);
+        for (Path old : snapshots()) {
+            if (snapshotPosition(old) < position) {
+                Files.deleteIfExists(old);
+            }
+        }
+    }
+
+    private static ByteBuffer ensure(FileChannel out, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+        return buffer.capacity() >= bytes ? buffer : ByteBuffer.allocate(bytes);
+    }
+
+    /**
+     * Restores the enlistments from the latest snapshot and the journal after
+     * it into the given students and sections. Must run before anything new
+     * is appended.
+     *
+     * @return the number of journal records replayed on top of the snapshot
+     */
+    int recover(Map<String, Section> sections, Map<Integer, Student> students) throws IOException {
+        notNull(sections, "sections cannot be null");
+        notNull(students, "students cannot be null");
+        long from = HEADER_SIZE;
+        Path latest = null;
+        for (Path snapshot : snapshots()) {
+            if (latest == null || snapshotPosition(snapshot) > snapshotPosition(latest)) {
+                latest = snapshot;
+            }
+        }
+        if (latest != null) {
+            from = loadSnapshot(latest, sections, students);
+        }
+        int[] replayed = new int[1];
+        scan(channel, chunkSize, from, (op, studentNumber, sectionId) -> {
+            Student student = lookup(students, studentNumber);
+            Section section = lookup(sections, sectionId);
+            if (op == ENLIST) {
+                student.restoreEnlistment(section);
+            } else {
+                student.restoreCancellation(section);
+            }
+            replayed[0]++;
+        });
+        return replayed[0];
+    }
+
+    private static long loadSnapshot(Path snapshot, Map<String, Section> sections, Map<Integer, Student> students)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(snapshot, READ)) {
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            isTrue(buffer.getInt() == SNAPSHOT_MAGIC, "not an enlistment snapshot: %s", snapshot);
+            isTrue(buffer.getInt() == VERSION, "unsupported snapshot version in %s", snapshot);
+            long position = buffer.getLong();
+            int studentCount = buffer.getInt();
+            for (int i = 0; i < studentCount; i++) {
+                Student student = lookup(students, buffer.getInt());
+                int sectionCount = buffer.getInt();
+                for (int j = 0; j < sectionCount; j++) {
+                    student.restoreEnlistment(lookup(sections, readString(buffer, buffer.getShort())));
+                }
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Walks the records from {@code from} until the end of the journal, which
+     * is the first empty, truncated or corrupt record.
+     *
+     * @return the position right after the last valid record
+     */
+    private static long scan(FileChannel channel, int chunkSize, long from, Operation operation) throws IOException {
+        long position = from;
+        long size = channel.size();
+        CRC32 crc = new CRC32();
+        while (position < size) {
+            long start = position - position % chunkSize;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+            buffer.position((int) (position - start));
+            while (true) {
+                if (buffer.remaining() < 4) {
+                    position = start + chunkSize;
+                    break;
+                }
+                int length = buffer.getInt();
+                if (length == PADDING) {
+                    position = start + chunkSize;
+                    break;
+                }
+                if (length < 4 + 7 || length > buffer.remaining()) {
+                    return position;
+                }
+                int payloadStart = buffer.position();
+                ByteBuffer payload = buffer.slice().limit(length - 4);
+                crc.reset();
+                crc.update(payload);
+                buffer.position(payloadStart + length - 4);
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    return position;
+                }
+                if (operation != null) {
+                    buffer.position(payloadStart);
+                    byte op = buffer.get();
+                    int studentNumber = buffer.getInt();
+                    String sectionId = readString(buffer, buffer.getShort());
+                    operation.apply(op, studentNumber, sectionId);
+                    buffer.position(payloadStart + length);
+                }
+                position = start + buffer.position();
+            }
+        }
+        return position;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static <K, V> V lookup(Map<K, V> map, K key) {
+        V value = map.get(key);
+        validState(value != null, "journal refers to unknown id: %s", key);
+        return value;
+    }
+
+    private List<Path> snapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            stream.forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    private static long snapshotPosition(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * Waits for the pending commits, forces the journal and closes it.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        synchronized (appendLock) {
+            closed = true;
+        }
+        LockSupport.unpark(flusher);
+        flusher.join();
+        durablePosition = force();
+        channel.close();
+    }
+}
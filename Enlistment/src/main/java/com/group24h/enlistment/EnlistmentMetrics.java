@@ -0,0 +1,295 @@
+package com.group24h.enlistment;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Counters and latency histograms for {@link Student#tryEnlist(Section)},
+ * {@link Student#enlist(Section)}, {@link Student#cancelEnlistment(Section)}
+ * and swaps, plus gauges for the sections being watched. Swaps are counted
+ * apart from enlistments, so they do not add to the enlistment attempts.
+ *
+ * The instance the students report to is global and starts out as
+ * {@link #NOOP}, which costs one volatile read and a branch per call. A
+ * recording instance counts every call with a striped increment. Reading the
+ * clock costs more than the rest of the instrumentation together, so by
+ * default only one call in {@value #DEFAULT_SAMPLE_INTERVAL}, picked at
+ * random, is timed; the percentiles stay representative, only the
+ * histogram's count is smaller than the number of calls. Enlistment
+ * latencies are measured once the student's lock is held, so they do not
+ * include waiting for another call on the same student; cancellation
+ * latencies include handing the seat to the waitlist. Gauges are only
+ * computed when a snapshot is taken.
+ */
+final class EnlistmentMetrics {
+    static final EnlistmentMetrics NOOP = new EnlistmentMetrics(false, 1);
+
+    private static volatile EnlistmentMetrics current = NOOP;
+
+    static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p999"};
+
+    private final boolean enabled;
+    private final int sampleMask;
+    private final LongAdder[] results = new LongAdder[EnlistmentResult.values().length];
+    private final LongAdder[] swapResults = new LongAdder[EnlistmentResult.values().length];
+    private final LongAdder cancellations = new LongAdder();
+    private final LatencyHistogram enlistLatency;
+    private final LatencyHistogram swapLatency;
+    private final LatencyHistogram cancelLatency;
+    private final ConcurrentMap<String, Section> watched = new ConcurrentHashMap<>();
+
+    private EnlistmentMetrics(boolean enabled, int sampleInterval) {
+        this.enabled = enabled;
+        this.sampleMask = sampleInterval - 1;
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new LongAdder();
+            swapResults[i] = new LongAdder();
+        }
+        this.enlistLatency = enabled ? new LatencyHistogram() : null;
+        this.swapLatency = enabled ? new LatencyHistogram() : null;
+        this.cancelLatency = enabled ? new LatencyHistogram() : null;
+    }
+
+    static EnlistmentMetrics recording() {
+        return recording(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval time one call in this many, a power of two; 1 times every call
+     */
+    static EnlistmentMetrics recording(int sampleInterval) {
+        isTrue(sampleInterval > 0 && Integer.bitCount(sampleInterval) == 1,
+                "sampleInterval must be a power of two, was: %d", sampleInterval);
+        return new EnlistmentMetrics(true, sampleInterval);
+    }
+
+    /**
+     * Makes the students report to the given metrics from now on.
+     */
+    static void install(EnlistmentMetrics metrics) {
+        notNull(metrics, "metrics cannot be null");
+        current = metrics;
+    }
+
+    static EnlistmentMetrics current() {
+        return current;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the value to pass to the matching record call
+     */
+    long start() {
+        if (!enabled || (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0)) {
+            return UNTIMED;
+        }
+        return System.nanoTime();
+    }
+
+    void recordEnlistment(EnlistmentResult result, long start) {
+        if (enabled) {
+            if (start != UNTIMED) {
+                enlistLatency.record(System.nanoTime() - start);
+            }
+            results[result.ordinal()].increment();
+        }
+    }
+
+    void recordSwap(EnlistmentResult result, long start) {
+        if (enabled) {
+            if (start != UNTIMED) {
+                swapLatency.record(System.nanoTime() - start);
+            }
+            swapResults[result.ordinal()].increment();
+        }
+    }
+
+    void recordCancellation(long start) {
+        if (enabled) {
+            if (start != UNTIMED) {
+                cancelLatency.record(System.nanoTime() - start);
+            }
+            cancellations.increment();
+        }
+    }
+
+    /**
+     * Adds gauges for the section's fill rate, enlisted students, waitlist
+     * and seat contention to every snapshot.
+     */
+    void watch(Section section) {
+        notNull(section, "section cannot be null");
+        watched.put(section.getSectionId(), section);
+    }
+
+    void unwatch(Section section) {
+        notNull(section, "section cannot be null");
+        watched.remove(section.getSectionId(), section);
+    }
+
+    long getCount(EnlistmentResult result) {
+        notNull(result, "result cannot be null");
+        return results[result.ordinal()].sum();
+    }
+
+    long getAttempts() {
+        return sum(results);
+    }
+
+    long getSwapCount(EnlistmentResult result) {
+        notNull(result, "result cannot be null");
+        return swapResults[result.ordinal()].sum();
+    }
+
+    long getSwapAttempts() {
+        return sum(swapResults);
+    }
+
+    long getCancellations() {
+        return cancellations.sum();
+    }
+
+    LatencyHistogram getEnlistLatency() {
+        return enlistLatency;
+    }
+
+    LatencyHistogram getSwapLatency() {
+        return swapLatency;
+    }
+
+    LatencyHistogram getCancelLatency() {
+        return cancelLatency;
+    }
+
+    /**
+     * Every metric by name. Latencies are in nanoseconds, the fill rate of
+     * a section is between 0 and 1.
+     */
+    SortedMap<String, Number> snapshot() {
+        SortedMap<String, Number> metrics = new TreeMap<>();
+        metrics.put("enlist.attempts", getAttempts());
+        for (EnlistmentResult result : EnlistmentResult.values()) {
+            String name = result.isSuccess() ? "enlist.enlisted" : "enlist.rejected." + result.name().toLowerCase();
+            metrics.put(name, getCount(result));
+        }
+        metrics.put("swap.attempts", getSwapAttempts());
+        for (EnlistmentResult result : EnlistmentResult.values()) {
+            String name = result.isSuccess() ? "swap.swapped" : "swap.rejected." + result.name().toLowerCase();
+            metrics.put(name, getSwapCount(result));
+        }
+        metrics.put("cancel.count", getCancellations());
+        if (enabled) {
+            putLatencies(metrics, "enlist.latency.", enlistLatency);
+            putLatencies(metrics, "swap.latency.", swapLatency);
+            putLatencies(metrics, "cancel.latency.", cancelLatency);
+        }
+        watched.forEach((sectionId, section) -> {
+            String prefix = "section." + sectionId + ".";
+            int capacity = section.getRoom().getCapacity();
+            int enlisted = section.getNumberOfStudents();
+            metrics.put(prefix + "enlisted", enlisted);
+            metrics.put(prefix + "capacity", capacity);
+            metrics.put(prefix + "fill", capacity == 0 ? 1.0 : (double) enlisted / capacity);
+            metrics.put(prefix + "waitlist", section.getWaitlistSize());
+            metrics.put(prefix + "contention", section.getSeatContention());
+        });
+        return metrics;
+    }
+
+    void export(MetricsExporter exporter) {
+        notNull(exporter, "exporter cannot be null");
+        exporter.export(snapshot());
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server, each one as a
+     * read-only attribute of the given name.
+     */
+    ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), objectName);
+        return objectName;
+    }
+
+    private static long sum(LongAdder[] counts) {
+        long sum = 0;
+        for (LongAdder count : counts) {
+            sum += count.sum();
+        }
+        return sum;
+    }
+
+    private static void putLatencies(SortedMap<String, Number> metrics, String prefix, LatencyHistogram histogram) {
+        metrics.put(prefix + "count", histogram.getCount());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            metrics.put(prefix + PERCENTILE_NAMES[i], histogram.valueAtPercentile(PERCENTILES[i]));
+        }
+        metrics.put(prefix + "max", histogram.getMax());
+    }
+
+    /**
+     * JMX view of {@link #snapshot()}. The attributes change as sections are
+     * watched, so the MBean info is rebuilt on every request.
+     */
+    private final class MetricsMBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Number value = snapshot().get(attribute);
+            if (value == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            SortedMap<String, Number> metrics = snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                Number value = metrics.get(attribute);
+                if (value != null) {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            snapshot().forEach((name, value) -> attributes.add(new MBeanAttributeInfo(
+                    name, value.getClass().getName(), name, true, false, false)));
+            return new MBeanInfo(EnlistmentMetrics.class.getName(), "Enlistment metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.group24h.enlistment;
+
+/**
+ * Outcome of {@link Student#tryEnlist(Section)}. Rejections are reported as
+ * plain values so that a storm of them costs no exceptions or messages; the
+ * human-readable detail is only built when {@link #describe} is called.
+ */
+enum EnlistmentResult {
+    ENLISTED,
+    SCHEDULE_CONFLICT,
+    SUBJECT_CONFLICT,
+    MISSING_PREREQUISITE,
+    SECTION_FULL;
+
+    boolean isSuccess() {
+        return this == ENLISTED;
+    }
+
+    /**
+     * Explains this result for the given student and section, based on the
+     * student's current enlistments.
+     */
+    String describe(Student student, Section section) {
+        return isSuccess() ? student + " enlisted in " + section : student.rejection(this, section).getMessage();
+    }
+}
@@ -0,0 +1,36 @@
+package com.group24h.enlistment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * In-process stand-in for the network: delivers each request to a node in
+ * the same JVM on the given executor, so callers see the same asynchronous
+ * replies they would get from a remote node.
+ */
+final class LoopbackTransport implements Transport {
+    private final ConcurrentMap<Integer, PartitionNode> nodes = new ConcurrentHashMap<>();
+    private final Executor executor;
+
+    LoopbackTransport(Executor executor) {
+        notNull(executor, "executor cannot be null");
+        this.executor = executor;
+    }
+
+    void register(PartitionNode node) {
+        nodes.put(node.getId(), node);
+    }
+
+    @Override
+    public CompletableFuture<PartitionReply> send(int nodeId, PartitionRequest request) {
+        PartitionNode node = nodes.get(nodeId);
+        if (node == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("no node " + nodeId + " for " + request));
+        }
+        return CompletableFuture.supplyAsync(() -> node.handle(request), executor);
+    }
+}
@@ -0,0 +1,53 @@
+package com.group24h.enlistment;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the commands submitted to it one at a time, in submission order, on
+ * a shared executor. At most one thread drains a mailbox at any moment, so
+ * whatever a mailbox guards has a single writer without any lock.
+ */
+final class Mailbox implements Runnable {
+    // commands run per turn before the mailbox yields its thread to others
+    private static final int BATCH = 64;
+
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Executor executor;
+
+    Mailbox(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a command. Commands must not throw.
+     */
+    void submit(Runnable command) {
+        commands.add(command);
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        try {
+            Runnable command;
+            for (int i = 0; i < BATCH && (command = commands.poll()) != null; i++) {
+                command.run();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!commands.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.group24h.enlistment;
+
+import java.util.SortedMap;
+
+/**
+ * Receives the current metrics, by name, whenever
+ * {@link EnlistmentMetrics#export(MetricsExporter)} is called, e.g. to push
+ * them to a monitoring system or write them to a log.
+ */
+@FunctionalInterface
+interface MetricsExporter {
+    void export(SortedMap<String, Number> metrics);
+}
@@ -0,0 +1,13 @@
+package com.group24h.enlistment;
+
+public class MissingPrerequisiteException extends IllegalArgumentException {
+    MissingPrerequisiteException(String msg) {
+        super(msg);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // stackless like the other rejections; IllegalArgumentException lacks the constructor for it
+        return this;
+    }
+}
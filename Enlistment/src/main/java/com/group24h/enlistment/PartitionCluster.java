@@ -0,0 +1,97 @@
+package com.group24h.enlistment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * A whole partitioned topology in one JVM: nodes connected by a
+ * {@link LoopbackTransport}, the partition map and a coordinator. Nodes can
+ * be added at any time and partitions moved between them while
+ * enlistments go on.
+ *
+ * Moving a partition hands the sections themselves to the new node. Across
+ * a real network their seat counts and class lists would be sent instead;
+ * the hand-off protocol is the same.
+ */
+final class PartitionCluster {
+    private final PartitionMap partitions;
+    private final LoopbackTransport transport;
+    private final List<PartitionNode> nodes = new ArrayList<>();
+    private final PartitionCoordinator coordinator;
+
+    PartitionCluster(int nodeCount, int partitionCount, Executor executor) {
+        partitions = new PartitionMap(partitionCount, nodeCount);
+        transport = new LoopbackTransport(executor);
+        for (int i = 0; i < nodeCount; i++) {
+            addNode();
+        }
+        coordinator = new PartitionCoordinator(transport, partitions);
+    }
+
+    /**
+     * Adds an empty node. It only gets sections once partitions are moved
+     * to it, e.g. by {@link #rebalance()}.
+     */
+    synchronized int addNode() {
+        PartitionNode node = new PartitionNode(nodes.size(), partitions);
+        nodes.add(node);
+        transport.register(node);
+        return node.getId();
+    }
+
+    void addSection(Section section) {
+        notNull(section, "section cannot be null");
+        nodeFor(section.getSectionId()).addSection(section);
+    }
+
+    PartitionCoordinator getCoordinator() {
+        return coordinator;
+    }
+
+    PartitionMap getPartitions() {
+        return partitions;
+    }
+
+    synchronized PartitionNode getNode(int id) {
+        return nodes.get(id);
+    }
+
+    synchronized int getNodeCount() {
+        return nodes.size();
+    }
+
+    PartitionNode nodeFor(String sectionId) {
+        return getNode(partitions.ownerOf(sectionId));
+    }
+
+    /**
+     * Moves a partition to another node. Blocks until the requests in flight
+     * on the partition are done, so it must not run on the transport's
+     * executor.
+     */
+    synchronized void move(int partition, int toNode) {
+        isTrue(partition >= 0 && partition < partitions.getPartitions(), "unknown partition: %d", partition);
+        isTrue(toNode >= 0 && toNode < nodes.size(), "unknown node: %d", toNode);
+        int fromNode = partitions.ownerOfPartition(partition);
+        if (fromNode == toNode) {
+            return;
+        }
+        Map<String, Section> sections = nodes.get(fromNode).handOff(partition);
+        nodes.get(toNode).adopt(sections);
+        partitions.assign(partition, toNode);
+    }
+
+    /**
+     * Spreads the partitions evenly over all the nodes, moving as few as the
+     * round-robin layout allows.
+     */
+    synchronized void rebalance() {
+        for (int partition = 0; partition < partitions.getPartitions(); partition++) {
+            move(partition, partition % nodes.size());
+        }
+    }
+}
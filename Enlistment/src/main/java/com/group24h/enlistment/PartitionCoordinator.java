@@ -0,0 +1,157 @@
+package com.group24h.enlistment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Student side of partitioned enlistment. The student's record stays with
+ * the coordinator, and so does every check that needs it: conflicts with
+ * sections on other nodes are found from the student's schedule and the
+ * sections' catalog data, without asking those nodes. Only seats are
+ * taken remotely.
+ *
+ * Enlisting in several sections is a two-phase commit: the student first
+ * holds the time slots and subjects, then every owning node is asked to
+ * prepare a seat. If all of them do, the seats are committed and the hold
+ * becomes an enlistment; otherwise the prepared seats are aborted and the
+ * hold is released, so the student ends up in all of the sections or in
+ * none. A node that no longer owns a section answers
+ * {@link PartitionReply#MOVED} and the request is retried against the
+ * owner in the partition map after a short pause.
+ *
+ * Students enlisted through a coordinator must only be changed through it.
+ */
+final class PartitionCoordinator {
+    private static final int MAX_ATTEMPTS = 50;
+    private static final long RETRY_MILLIS = 2;
+    private static final int NOT_PREPARED = -1;
+
+    private final Transport transport;
+    private final PartitionMap partitions;
+    private final AtomicLong transactions = new AtomicLong();
+
+    PartitionCoordinator(Transport transport, PartitionMap partitions) {
+        notNull(transport, "transport cannot be null");
+        notNull(partitions, "partitions cannot be null");
+        this.transport = transport;
+        this.partitions = partitions;
+    }
+
+    CompletableFuture<EnlistmentResult> enlist(Student student, Section section) {
+        return enlistAll(student, Collections.singletonList(section));
+    }
+
+    /**
+     * Enlists the student in all the sections or in none of them.
+     */
+    CompletableFuture<EnlistmentResult> enlistAll(Student student, List<Section> sections) {
+        notNull(student, "student cannot be null");
+        EnlistmentResult checked = student.holdEnlistments(sections);
+        if (!checked.isSuccess()) {
+            return CompletableFuture.completedFuture(checked);
+        }
+        int studentNumber = student.getStudentNumber();
+        long[] transactionIds = new long[sections.size()];
+        List<CompletableFuture<Integer>> prepares = new ArrayList<>(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            transactionIds[i] = transactions.incrementAndGet();
+            prepares.add(prepare(PartitionRequest.prepare(transactionIds[i], sections.get(i).getSectionId(), studentNumber), 1));
+        }
+        return CompletableFuture.allOf(prepares.toArray(CompletableFuture<?>[]::new))
+                .handle((ignored, e) -> null)
+                .thenCompose(ignored -> {
+                    boolean allPrepared = prepares.stream().allMatch(prepare ->
+                            !prepare.isCompletedExceptionally() && prepare.join() != NOT_PREPARED);
+                    List<CompletableFuture<PartitionReply>> secondPhase = new ArrayList<>(sections.size());
+                    for (int i = 0; i < sections.size(); i++) {
+                        CompletableFuture<Integer> prepare = prepares.get(i);
+                        if (prepare.isCompletedExceptionally() || prepare.join() == NOT_PREPARED) {
+                            continue;
+                        }
+                        String sectionId = sections.get(i).getSectionId();
+                        secondPhase.add(transport.send(prepare.join(), allPrepared
+                                ? PartitionRequest.commit(transactionIds[i], sectionId, studentNumber)
+                                : PartitionRequest.abort(transactionIds[i], sectionId)));
+                    }
+                    return CompletableFuture.allOf(secondPhase.toArray(CompletableFuture<?>[]::new))
+                            .whenComplete((done, failure) -> {
+                                if (allPrepared && failure == null) {
+                                    student.completeEnlistments(sections);
+                                } else {
+                                    student.releaseHold(sections);
+                                }
+                            })
+                            .thenApply(done -> firstFailure(prepares));
+                });
+    }
+
+    /**
+     * @return the node holding the prepared seat, or {@code NOT_PREPARED} if the section is full
+     */
+    private CompletableFuture<Integer> prepare(PartitionRequest request, int attempt) {
+        int node = partitions.ownerOf(request.getSectionId());
+        return transport.send(node, request).thenCompose(reply -> {
+            switch (reply) {
+                case PREPARED:
+                    return CompletableFuture.completedFuture(node);
+                case SECTION_FULL:
+                    return CompletableFuture.completedFuture(NOT_PREPARED);
+                case MOVED:
+                    return later(request, attempt, () -> prepare(request, attempt + 1));
+                default:
+                    throw new IllegalStateException("unexpected reply " + reply + " to " + request);
+            }
+        });
+    }
+
+    /**
+     * Runs the next attempt after a pause that grows with every attempt, to
+     * give a partition being handed off time to reach its new owner.
+     */
+    private static <T> CompletableFuture<T> later(PartitionRequest request, int attempt,
+                                                  Supplier<CompletableFuture<T>> nextAttempt) {
+        if (attempt >= MAX_ATTEMPTS) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "no node would take " + request + " after " + attempt + " attempts"));
+        }
+        return CompletableFuture.supplyAsync(() -> null,
+                        CompletableFuture.delayedExecutor(RETRY_MILLIS * attempt, TimeUnit.MILLISECONDS))
+                .thenCompose(ignored -> nextAttempt.get());
+    }
+
+    private static EnlistmentResult firstFailure(List<CompletableFuture<Integer>> prepares) {
+        for (CompletableFuture<Integer> prepare : prepares) {
+            // a prepare that failed outright fails the whole enlistment
+            if (prepare.join() == NOT_PREPARED) {
+                return EnlistmentResult.SECTION_FULL;
+            }
+        }
+        return EnlistmentResult.ENLISTED;
+    }
+
+    /**
+     * Takes the section off the student's schedule, then has its owner give
+     * the seat back, which may go to a student on its waitlist.
+     */
+    CompletableFuture<Void> cancel(Student student, Section section) {
+        notNull(student, "student cannot be null");
+        student.removeEnlistment(section);
+        return cancel(PartitionRequest.cancel(section.getSectionId(), student.getStudentNumber()), 1);
+    }
+
+    private CompletableFuture<Void> cancel(PartitionRequest request, int attempt) {
+        return transport.send(partitions.ownerOf(request.getSectionId()), request).thenCompose(reply -> {
+            if (reply != PartitionReply.MOVED) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return later(request, attempt, () -> cancel(request, attempt + 1));
+        });
+    }
+}
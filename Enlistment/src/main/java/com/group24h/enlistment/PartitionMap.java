@@ -0,0 +1,46 @@
+package com.group24h.enlistment;
+
+import java.util.Arrays;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Splits the sections into a fixed number of partitions by section id and
+ * records which node owns each partition. Rebalancing moves whole
+ * partitions, so a section never changes partition, only owner.
+ */
+final class PartitionMap {
+    // copied on every move, read without locking
+    private volatile int[] owners;
+
+    PartitionMap(int partitions, int nodes) {
+        isTrue(partitions > 0, "partitions must be positive, was: %d", partitions);
+        isTrue(nodes > 0, "nodes must be positive, was: %d", nodes);
+        owners = new int[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            owners[partition] = partition % nodes;
+        }
+    }
+
+    int getPartitions() {
+        return owners.length;
+    }
+
+    int partitionOf(String sectionId) {
+        return Math.floorMod(sectionId.hashCode() * 0x9E3779B9, owners.length);
+    }
+
+    int ownerOf(String sectionId) {
+        return owners[partitionOf(sectionId)];
+    }
+
+    int ownerOfPartition(int partition) {
+        return owners[partition];
+    }
+
+    synchronized void assign(int partition, int node) {
+        int[] moved = Arrays.copyOf(owners, owners.length);
+        moved[partition] = node;
+        owners = moved;
+    }
+}
@@ -0,0 +1,162 @@
+package com.group24h.enlistment;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Owns the seats of the sections in some of the partitions. Only the
+ * owning node reserves, commits or gives back a seat of a section, so the
+ * seat counters never see two writers from different nodes.
+ *
+ * Every request on a partition counts as in flight from the moment it
+ * starts until it is done; for a prepared seat that is until it is
+ * committed or aborted. Handing a partition off first stops new requests
+ * on it, which are answered with {@link PartitionReply#MOVED}, then waits
+ * for the ones in flight to finish, so no seat is reserved while the
+ * sections change owner and none can be counted twice.
+ */
+final class PartitionNode {
+    private static final int HANDING_OFF = 1 << 30;
+
+    private final int id;
+    private final PartitionMap partitions;
+    private final ConcurrentMap<String, Section> sections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Section> prepared = new ConcurrentHashMap<>();
+    // requests in flight per partition, plus HANDING_OFF while the partition is being handed off
+    private final AtomicIntegerArray inFlight;
+
+    PartitionNode(int id, PartitionMap partitions) {
+        notNull(partitions, "partitions cannot be null");
+        this.id = id;
+        this.partitions = partitions;
+        this.inFlight = new AtomicIntegerArray(partitions.getPartitions());
+    }
+
+    int getId() {
+        return id;
+    }
+
+    void addSection(Section section) {
+        notNull(section, "section cannot be null");
+        sections.put(section.getSectionId(), section);
+    }
+
+    Section getSection(String sectionId) {
+        return sections.get(sectionId);
+    }
+
+    int getSectionCount() {
+        return sections.size();
+    }
+
+    PartitionReply handle(PartitionRequest request) {
+        switch (request.getKind()) {
+            case PREPARE:
+                return prepare(request);
+            case COMMIT:
+                Section committed = prepared.remove(request.getTransactionId());
+                validState(committed != null, "no prepared seat for %s", request);
+                committed.commitSeat(request.getStudentNumber());
+                exit(committed);
+                return PartitionReply.DONE;
+            case ABORT:
+                Section aborted = prepared.remove(request.getTransactionId());
+                if (aborted != null) {
+                    aborted.releaseSeat();
+                    exit(aborted);
+                }
+                return PartitionReply.DONE;
+            case CANCEL:
+                return cancel(request);
+            default:
+                throw new IllegalArgumentException("unknown request: " + request);
+        }
+    }
+
+    private PartitionReply prepare(PartitionRequest request) {
+        int partition = partitions.partitionOf(request.getSectionId());
+        if (!enter(partition)) {
+            return PartitionReply.MOVED;
+        }
+        Section section = sections.get(request.getSectionId());
+        if (section == null) {
+            inFlight.decrementAndGet(partition);
+            return PartitionReply.MOVED;
+        }
+        if (!section.tryReserveSeat()) {
+            inFlight.decrementAndGet(partition);
+            return PartitionReply.SECTION_FULL;
+        }
+        // stays in flight until committed or aborted
+        prepared.put(request.getTransactionId(), section);
+        return PartitionReply.PREPARED;
+    }
+
+    private PartitionReply cancel(PartitionRequest request) {
+        int partition = partitions.partitionOf(request.getSectionId());
+        if (!enter(partition)) {
+            return PartitionReply.MOVED;
+        }
+        try {
+            Section section = sections.get(request.getSectionId());
+            if (section == null) {
+                return PartitionReply.MOVED;
+            }
+            section.removeEnlistedStudent(request.getStudentNumber());
+            return PartitionReply.DONE;
+        } finally {
+            inFlight.decrementAndGet(partition);
+        }
+    }
+
+    private boolean enter(int partition) {
+        while (true) {
+            int current = inFlight.get(partition);
+            if ((current & HANDING_OFF) != 0) {
+                return false;
+            }
+            if (inFlight.compareAndSet(partition, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void exit(Section section) {
+        inFlight.decrementAndGet(partitions.partitionOf(section.getSectionId()));
+    }
+
+    /**
+     * Stops serving the partition, waits for its requests in flight to
+     * finish and gives up its sections, seat state and all.
+     */
+    Map<String, Section> handOff(int partition) {
+        int current;
+        do {
+            current = inFlight.get(partition);
+            validState((current & HANDING_OFF) == 0, "partition %d is already being handed off", partition);
+        } while (!inFlight.compareAndSet(partition, current, current | HANDING_OFF));
+        while (inFlight.get(partition) != HANDING_OFF) {
+            Thread.yield();
+        }
+        Map<String, Section> handedOff = new HashMap<>();
+        sections.values().removeIf(section -> {
+            if (partitions.partitionOf(section.getSectionId()) == partition) {
+                handedOff.put(section.getSectionId(), section);
+                return true;
+            }
+            return false;
+        });
+        inFlight.set(partition, 0);
+        return handedOff;
+    }
+
+    void adopt(Map<String, Section> handedOff) {
+        notNull(handedOff, "sections cannot be null");
+        sections.putAll(handedOff);
+    }
+}
@@ -0,0 +1,10 @@
+package com.group24h.enlistment;
+
+enum PartitionReply {
+    /** The seat is reserved until the transaction is committed or aborted. */
+    PREPARED,
+    SECTION_FULL,
+    /** The node does not own the section, or is handing it off; ask the owner again later. */
+    MOVED,
+    DONE
+}
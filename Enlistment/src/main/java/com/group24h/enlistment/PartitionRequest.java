@@ -0,0 +1,61 @@
+package com.group24h.enlistment;
+
+/**
+ * A message to the node that owns a section. A seat is taken in two
+ * phases: {@code PREPARE} reserves it under a transaction id, then
+ * {@code COMMIT} enlists the student in it or {@code ABORT} gives it back.
+ */
+final class PartitionRequest {
+    enum Kind {
+        PREPARE, COMMIT, ABORT, CANCEL
+    }
+
+    private final Kind kind;
+    private final long transactionId;
+    private final String sectionId;
+    private final int studentNumber;
+
+    private PartitionRequest(Kind kind, long transactionId, String sectionId, int studentNumber) {
+        this.kind = kind;
+        this.transactionId = transactionId;
+        this.sectionId = sectionId;
+        this.studentNumber = studentNumber;
+    }
+
+    static PartitionRequest prepare(long transactionId, String sectionId, int studentNumber) {
+        return new PartitionRequest(Kind.PREPARE, transactionId, sectionId, studentNumber);
+    }
+
+    static PartitionRequest commit(long transactionId, String sectionId, int studentNumber) {
+        return new PartitionRequest(Kind.COMMIT, transactionId, sectionId, studentNumber);
+    }
+
+    static PartitionRequest abort(long transactionId, String sectionId) {
+        return new PartitionRequest(Kind.ABORT, transactionId, sectionId, -1);
+    }
+
+    static PartitionRequest cancel(String sectionId, int studentNumber) {
+        return new PartitionRequest(Kind.CANCEL, -1, sectionId, studentNumber);
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    long getTransactionId() {
+        return transactionId;
+    }
+
+    String getSectionId() {
+        return sectionId;
+    }
+
+    int getStudentNumber() {
+        return studentNumber;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + sectionId + (transactionId >= 0 ? " tx " + transactionId : "");
+    }
+}
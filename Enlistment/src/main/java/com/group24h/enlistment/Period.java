@@ -6,8 +6,30 @@ import java.util.Objects;
 import static org.apache.commons.lang3.Validate.notNull;
 
 public class Period {
-    LocalTime start;
-    LocalTime end;
+    static final int SLOT_MINUTES = 30;
+    static final int FIRST_SLOT_MINUTE = 8 * 60 + 30;
+    static final int SLOTS_PER_DAY = 18;
+
+    private static final LocalTime VALID_START = LocalTime.of(8,29);
+    private static final LocalTime VALID_END = LocalTime.of(17,31);
+    private static final int BOUNDARIES = SLOTS_PER_DAY + 1;
+    // every valid period on the grid, indexed by startSlot * BOUNDARIES + endSlot
+    private static final Period[] CANONICAL = new Period[BOUNDARIES * BOUNDARIES];
+
+    static {
+        for (int startSlot = 0; startSlot < SLOTS_PER_DAY; startSlot++) {
+            for (int endSlot = startSlot + 1; endSlot <= SLOTS_PER_DAY; endSlot++) {
+                CANONICAL[startSlot * BOUNDARIES + endSlot] = new Period(toTime(startSlot), toTime(endSlot));
+            }
+        }
+    }
+
+    final LocalTime start;
+    final LocalTime end;
+    private final int slotMask;
+    // position in CANONICAL, or -1 if the times are not exactly on the grid
+    private final int index;
+    private final int hash;
 
     Period(LocalTime start, LocalTime end){
         notNull(start);
@@ -15,6 +37,27 @@ public class Period {
         checkIfValidTime(start,end);
         this.start = start;
         this.end= end;
+        this.slotMask = slotMask(toSlot(start), toSlot(end));
+        this.index = isOnGrid(start) && isOnGrid(end) ? toSlot(start) * BOUNDARIES + toSlot(end) : -1;
+        this.hash = Objects.hash(start, end);
+    }
+
+    /**
+     * Returns the shared instance for the given times. Valid periods on the
+     * 30-minute grid are looked up in a precomputed table, anything else goes
+     * through the constructor and its validation.
+     */
+    static Period of(LocalTime start, LocalTime end) {
+        notNull(start);
+        notNull(end);
+        if (isOnGrid(start) && isOnGrid(end)) {
+            int startSlot = toSlot(start);
+            int endSlot = toSlot(end);
+            if (startSlot >= 0 && endSlot <= SLOTS_PER_DAY && startSlot < endSlot) {
+                return CANONICAL[startSlot * BOUNDARIES + endSlot];
+            }
+        }
+        return new Period(start, end);
     }
 
     void checkIfValidTime(LocalTime start, LocalTime end){
@@ -25,12 +68,9 @@ public class Period {
                     start.toString() + " and  end time: " + end.toString() );
         }
 
-        LocalTime validStart = LocalTime.of(8,29);
-        LocalTime validEnd = LocalTime.of(17,31);
-
         //Check if within 8:30 am - 5:30 pm
-        if(!start.isAfter(validStart) || !start.isBefore(validEnd)
-                || !end.isBefore(validEnd) || !end.isAfter(validStart)){
+        if(!start.isAfter(VALID_START) || !start.isBefore(VALID_END)
+                || !end.isBefore(VALID_END) || !end.isAfter(VALID_START)){
             throw new InvalidPeriodException("Time not within valid start: " +
                     start + " and  end:" + end );
         }
@@ -51,6 +91,45 @@ public class Period {
 
 
 
+    }
+
+    /**
+     * Occupied 30-minute slots of the day, bit 0 being 8:30 - 9:00.
+     */
+    int getSlotMask() {
+        return slotMask;
+    }
+
+    /**
+     * Position of this period in the canonical table, or -1 if it is not on the grid.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    static int toSlot(LocalTime time) {
+        return Math.floorDiv(time.getHour() * 60 + time.getMinute() - FIRST_SLOT_MINUTE, SLOT_MINUTES);
+    }
+
+    static LocalTime toTime(int slot) {
+        int minuteOfDay = FIRST_SLOT_MINUTE + slot * SLOT_MINUTES;
+        return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    static int canonicalCount() {
+        return CANONICAL.length;
+    }
+
+    static Period canonical(int index) {
+        return CANONICAL[index];
+    }
+
+    private static boolean isOnGrid(LocalTime time) {
+        return time.getMinute() % SLOT_MINUTES == 0 && time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    static int slotMask(int startSlot, int endSlot) {
+        return (1 << endSlot) - (1 << startSlot);
     }
 
     @Override
@@ -64,11 +143,12 @@ public class Period {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Period period = (Period) o;
+        if (index >= 0 || period.index >= 0) return index == period.index;
         return Objects.equals(start, period.start) && Objects.equals(end, period.end);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end);
+        return hash;
     }
 }
@@ -14,7 +14,7 @@ class Room {
         notBlank(roomName, "roomName cannot be blank, empty or whitespace");
         notNull(capacity);
         isTrue(isAlphanumeric(roomName),
-                "roomName must be alphanumeric, was: " + roomName);
+                "roomName must be alphanumeric, was: %s", roomName);
 
         this.roomName = roomName;
         this.capacity = capacity;
@@ -24,6 +24,15 @@ class Room {
         return capacity;
     }
 
+    String getRoomName() {
+        return roomName;
+    }
+
+    @Override
+    public String toString() {
+        return roomName;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,7 @@
+package com.group24h.enlistment;
+
+public class RoomConflictException extends RuntimeException {
+    RoomConflictException(String msg) {
+        super(msg);
+    }
+}
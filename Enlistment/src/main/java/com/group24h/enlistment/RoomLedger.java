@@ -0,0 +1,140 @@
+package com.group24h.enlistment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Which room is taken at which time slot of the week, across all sections.
+ *
+ * Every section has to be booked here when it is created. A booking is
+ * refused if another section already meets in the same room at an
+ * overlapping time, so each (room, slot) pair holds at most one section and
+ * that section's seats are the room's seats. Free-room queries read the
+ * occupancy masks without locking and only visit rooms that are big enough.
+ */
+class RoomLedger {
+    private final ConcurrentMap<Room, Entry> entries = new ConcurrentHashMap<>();
+    // all entries, largest room first; replaced whenever a room is added
+    private volatile Entry[] byCapacity = new Entry[0];
+
+    private static final class Entry {
+        final Room room;
+        final List<Section> bookings = new ArrayList<>();
+        volatile long occupancy;
+
+        Entry(Room room) {
+            this.room = room;
+        }
+    }
+
+    void addRoom(Room room) {
+        notNull(room, "room cannot be null");
+        entryFor(room);
+    }
+
+    /**
+     * Books the section's room for the section's schedule.
+     *
+     * @throws RoomConflictException if another section meets in the room at an overlapping time
+     */
+    void book(Section section) {
+        notNull(section, "section cannot be null");
+        Entry entry = entryFor(section.getRoom());
+        Schedule schedule = section.getSchedule();
+        synchronized (entry) {
+            if ((entry.occupancy & schedule.getOccupancy()) != 0) {
+                Section booked = entry.bookings.stream()
+                        .filter(other -> other.getSchedule().overlaps(schedule))
+                        .findFirst()
+                        .orElse(null);
+                throw new RoomConflictException("room " + entry.room + " is already booked by section " +
+                        booked + " at schedule " + (booked == null ? schedule : booked.getSchedule()) +
+                        ", cannot book section " + section);
+            }
+            entry.bookings.add(section);
+            entry.occupancy |= schedule.getOccupancy();
+        }
+    }
+
+    void release(Section section) {
+        notNull(section, "section cannot be null");
+        Entry entry = entries.get(section.getRoom());
+        isTrue(entry != null, "room %s has no bookings", section.getRoom());
+        synchronized (entry) {
+            isTrue(entry.bookings.remove(section), "section %s is not booked in room %s", section, section.getRoom());
+            entry.occupancy &= ~section.getSchedule().getOccupancy();
+        }
+    }
+
+    boolean isFree(Room room, Schedule schedule) {
+        notNull(room, "room cannot be null");
+        notNull(schedule, "schedule cannot be null");
+        Entry entry = entries.get(room);
+        return entry == null || (entry.occupancy & schedule.getOccupancy()) == 0;
+    }
+
+    /**
+     * Rooms with at least {@code minCapacity} seats that are free for the whole
+     * schedule, largest first.
+     */
+    List<Room> findFreeRooms(Schedule schedule, int minCapacity) {
+        notNull(schedule, "schedule cannot be null");
+        Entry[] rooms = byCapacity;
+        long wanted = schedule.getOccupancy();
+        int end = countWithCapacity(rooms, minCapacity);
+        List<Room> free = new ArrayList<>();
+        for (int i = 0; i < end; i++) {
+            if ((rooms[i].occupancy & wanted) == 0) {
+                free.add(rooms[i].room);
+            }
+        }
+        return free;
+    }
+
+    int getRoomCount() {
+        return byCapacity.length;
+    }
+
+    private Entry entryFor(Room room) {
+        Entry entry = entries.get(room);
+        return entry != null ? entry : addEntry(room);
+    }
+
+    private synchronized Entry addEntry(Room room) {
+        Entry entry = entries.get(room);
+        if (entry == null) {
+            entry = new Entry(room);
+            Entry[] current = byCapacity;
+            int at = countWithCapacity(current, room.getCapacity());
+            Entry[] rooms = new Entry[current.length + 1];
+            System.arraycopy(current, 0, rooms, 0, at);
+            rooms[at] = entry;
+            System.arraycopy(current, at, rooms, at + 1, current.length - at);
+            byCapacity = rooms;
+            entries.put(room, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Length of the prefix of {@code rooms} (sorted by decreasing capacity)
+     * whose rooms seat at least {@code minCapacity}.
+     */
+    private static int countWithCapacity(Entry[] rooms, int minCapacity) {
+        int low = 0;
+        int high = rooms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rooms[mid].room.getCapacity() >= minCapacity) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,18 +1,73 @@
 package com.group24h.enlistment;
 
+import java.time.LocalTime;
 import java.util.Objects;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
 class Schedule {
+    private static final int PERIODS = Period.canonicalCount();
+    // every schedule built from a canonical period, indexed by days * PERIODS + period index
+    private static final Schedule[] CANONICAL = new Schedule[Days.values().length * PERIODS];
+
+    static {
+        for (Days days : Days.values()) {
+            for (int index = 0; index < PERIODS; index++) {
+                Period period = Period.canonical(index);
+                if (period != null) {
+                    CANONICAL[days.ordinal() * PERIODS + index] = new Schedule(days, period);
+                }
+            }
+        }
+    }
+
     private final Days days;
     private final Period period;
+    private final long occupancy;
+    private final int hash;
 
     Schedule(Days days, Period period) {
         notNull(days);
         notNull(period);
         this.days = days;
         this.period = period;
+        this.occupancy = (long) period.getSlotMask() << (days.ordinal() * Period.SLOTS_PER_DAY);
+        this.hash = Objects.hash(days, period);
+    }
+
+    /**
+     * Returns the shared instance for the given days and period, so that
+     * equal schedules built through this factory are also identical.
+     */
+    static Schedule of(Days days, Period period) {
+        notNull(days);
+        notNull(period);
+        int index = period.getIndex();
+        return index >= 0 ? CANONICAL[days.ordinal() * PERIODS + index] : new Schedule(days, period);
+    }
+
+    static Schedule of(Days days, LocalTime start, LocalTime end) {
+        return of(days, Period.of(start, end));
+    }
+
+    Days getDays() {
+        return days;
+    }
+
+    Period getPeriod() {
+        return period;
+    }
+
+    /**
+     * Weekly occupancy of this schedule, one bit per 30-minute slot of each
+     * day pattern. Two schedules overlap iff their occupancies intersect.
+     */
+    long getOccupancy() {
+        return occupancy;
+    }
+
+    boolean overlaps(Schedule other) {
+        return (occupancy & other.occupancy) != 0;
     }
 
     @Override
@@ -25,12 +80,12 @@ class Schedule {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Schedule schedule = (Schedule) o;
-        return days == schedule.days && period == schedule.period;
+        return days == schedule.days && period.equals(schedule.period);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(days, period);
+        return hash;
     }
 }
 
@@ -0,0 +1,207 @@
+package com.group24h.enlistment;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Finds conflict-free timetables for a list of subjects, instead of having
+ * the student try section combinations one {@link Student#enlist(Section)}
+ * at a time.
+ *
+ * Sections the student cannot take at all (a clash with the current
+ * schedule, a subject already enlisted, a missing prerequisite or no seat
+ * left) are filtered out first, so the search itself only has to keep the
+ * chosen sections apart, which is a single mask test per step. Subjects with
+ * the fewest candidate sections are placed first. The first levels of the
+ * search tree are forked on a {@link ForkJoinPool}; below that each task
+ * searches its subtree on its own. The search stops at the time budget and
+ * returns the best timetables seen until then.
+ */
+class ScheduleFinder {
+    // levels forked as separate tasks, deeper levels are searched in the task
+    private static final int FORK_DEPTH = 2;
+    // how many search steps run between two looks at the clock
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final Map<Subject, List<Section>> sectionsBySubject = new HashMap<>();
+    private final ForkJoinPool pool;
+
+    ScheduleFinder(Collection<Section> sections) {
+        this(sections, ForkJoinPool.commonPool());
+    }
+
+    ScheduleFinder(Collection<Section> sections, ForkJoinPool pool) {
+        notNull(sections, "sections cannot be null");
+        noNullElements(sections, "sections cannot contain null");
+        notNull(pool, "pool cannot be null");
+        sections.forEach(section ->
+                sectionsBySubject.computeIfAbsent(section.getSubject(), subject -> new ArrayList<>()).add(section));
+        this.pool = pool;
+    }
+
+    /**
+     * Returns up to {@code limit} timetables that give the student one
+     * section of every subject, best first. An empty list means no
+     * combination was found within the budget.
+     */
+    List<Timetable> find(Student student, Collection<Subject> subjects, int limit, Duration budget) {
+        notNull(student, "student cannot be null");
+        notNull(subjects, "subjects cannot be null");
+        noNullElements(subjects, "subjects cannot contain null");
+        isTrue(!subjects.isEmpty(), "subjects cannot be empty");
+        isTrue(limit > 0, "limit must be positive, was: %d", limit);
+        notNull(budget, "budget cannot be null");
+
+        Section[][] candidates = candidates(student, new LinkedHashSet<>(subjects));
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        Search search = new Search(candidates, limit, System.nanoTime() + budget.toNanos());
+        pool.invoke(new SearchTask(search, 0, 0L, new Section[candidates.length]));
+        return search.results();
+    }
+
+    /**
+     * Finds timetables as {@link #find} does and enlists the student in the
+     * best one that can still be had, all sections or none. Timetables are
+     * tried in order since seats may have been taken since the search.
+     */
+    Optional<Timetable> findAndEnlist(Student student, Collection<Subject> subjects, int limit, Duration budget) {
+        for (Timetable timetable : find(student, subjects, limit, budget)) {
+            try {
+                student.enlistAll(timetable.getSections());
+                return Optional.of(timetable);
+            } catch (CapacityException | ScheduleConflictException | SubjectConflictException e) {
+                // taken or changed since the search, try the next one
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Open sections the student could take, one row per subject, the
+     * subjects with the fewest sections first.
+     *
+     * @return null if some subject has no such section
+     */
+    private Section[][] candidates(Student student, Collection<Subject> subjects) {
+        List<Section[]> rows = new ArrayList<>(subjects.size());
+        for (Subject subject : subjects) {
+            Section[] open = sectionsBySubject.getOrDefault(subject, Collections.emptyList()).stream()
+                    .filter(section -> section.getAvailableSeats() > 0)
+                    .filter(section -> student.checkEnlistment(section).isSuccess())
+                    .toArray(Section[]::new);
+            if (open.length == 0) {
+                return null;
+            }
+            rows.add(open);
+        }
+        rows.sort(Comparator.comparingInt(row -> row.length));
+        return rows.toArray(new Section[0][]);
+    }
+
+    /**
+     * State shared by every task of one search: the candidates, the best
+     * timetables so far and whether the budget ran out.
+     */
+    private static final class Search {
+        final Section[][] candidates;
+        final int limit;
+        final long deadline;
+        final AtomicBoolean expired = new AtomicBoolean();
+        // worst of the kept timetables at the head
+        private final PriorityQueue<Timetable> best;
+        // idle slots of the worst kept timetable once there are enough of them
+        private volatile int threshold = Integer.MAX_VALUE;
+
+        Search(Section[][] candidates, int limit, long deadline) {
+            this.candidates = candidates;
+            this.limit = limit;
+            this.deadline = deadline;
+            this.best = new PriorityQueue<>(limit + 1, Timetable.BEST_FIRST.reversed());
+        }
+
+        boolean isExpired() {
+            if (!expired.get() && System.nanoTime() - deadline > 0) {
+                expired.set(true);
+            }
+            return expired.get();
+        }
+
+        void offer(Section[] chosen, long occupancy) {
+            // most complete timetables lose on idle slots alone, skip them without locking
+            if (Timetable.idleSlots(occupancy) > threshold) {
+                return;
+            }
+            Timetable timetable = new Timetable(Arrays.asList(chosen.clone()), occupancy);
+            synchronized (this) {
+                best.add(timetable);
+                if (best.size() > limit) {
+                    best.poll();
+                    threshold = best.peek().getIdleSlots();
+                }
+            }
+        }
+
+        synchronized List<Timetable> results() {
+            List<Timetable> results = new ArrayList<>(best);
+            results.sort(Timetable.BEST_FIRST);
+            return results;
+        }
+    }
+
+    private static final class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final int depth;
+        private final long occupancy;
+        private final Section[] chosen;
+        private int steps;
+
+        SearchTask(Search search, int depth, long occupancy, Section[] chosen) {
+            this.search = search;
+            this.depth = depth;
+            this.occupancy = occupancy;
+            this.chosen = chosen;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth < FORK_DEPTH && depth < search.candidates.length) {
+                List<SearchTask> subtasks = new ArrayList<>();
+                for (Section section : search.candidates[depth]) {
+                    long sectionOccupancy = section.getSchedule().getOccupancy();
+                    if ((occupancy & sectionOccupancy) == 0) {
+                        Section[] next = chosen.clone();
+                        next[depth] = section;
+                        subtasks.add(new SearchTask(search, depth + 1, occupancy | sectionOccupancy, next));
+                    }
+                }
+                invokeAll(subtasks);
+            } else {
+                search(depth, occupancy);
+            }
+        }
+
+        private void search(int level, long occupied) {
+            if (level == search.candidates.length) {
+                search.offer(chosen, occupied);
+                return;
+            }
+            for (Section section : search.candidates[level]) {
+                if (++steps % CLOCK_INTERVAL == 0 && search.isExpired()) {
+                    return;
+                }
+                long sectionOccupancy = section.getSchedule().getOccupancy();
+                if ((occupied & sectionOccupancy) == 0) {
+                    chosen[level] = section;
+                    search(level + 1, occupied | sectionOccupancy);
+                }
+            }
+        }
+    }
+}
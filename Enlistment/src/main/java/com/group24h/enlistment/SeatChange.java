@@ -0,0 +1,59 @@
+package com.group24h.enlistment;
+
+import java.util.Objects;
+
+/**
+ * Seat counts of a section as published by a {@link SeatChangeFeed}.
+ */
+final class SeatChange {
+    private final Section section;
+    private final int enlisted;
+    private final int availableSeats;
+
+    SeatChange(Section section, int enlisted, int availableSeats) {
+        this.section = section;
+        this.enlisted = enlisted;
+        this.availableSeats = availableSeats;
+    }
+
+    static SeatChange of(Section section) {
+        return new SeatChange(section, section.getNumberOfStudents(), Math.max(0, section.getAvailableSeats()));
+    }
+
+    Section getSection() {
+        return section;
+    }
+
+    int getEnlisted() {
+        return enlisted;
+    }
+
+    /**
+     * Seats nobody holds, so seats reserved for an enlistment in progress do not count.
+     */
+    int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    boolean isFull() {
+        return availableSeats == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SeatChange that = (SeatChange) o;
+        return enlisted == that.enlisted && availableSeats == that.availableSeats && section.equals(that.section);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(section, enlisted, availableSeats);
+    }
+
+    @Override
+    public String toString() {
+        return section + ": " + enlisted + " enlisted, " + availableSeats + " available";
+    }
+}
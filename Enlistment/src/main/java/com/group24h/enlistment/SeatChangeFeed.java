@@ -0,0 +1,297 @@
+package com.group24h.enlistment;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Publishes the seat counts of watched sections as they change, per section
+ * and per subject, for dashboards and clients that would otherwise poll.
+ *
+ * A seat change only flags its section and queues it once, so the
+ * enlistment path never waits for the feed or its subscribers. Once per
+ * interval the feed reads the current counts of every flagged section and
+ * hands them to the subscribers, so a burst of enlistments in a section
+ * shows up as a single change, and one that nets out to no change as none.
+ *
+ * Every subscriber gets the current counts of the sections it follows
+ * first, then their changes, on the delivery executor and never more than
+ * it requested. While it has no demand left, a later change to a section
+ * replaces the one it has not taken yet, so a slow subscriber falls behind
+ * by at most one change per section instead of buffering without bound.
+ */
+final class SeatChangeFeed implements AutoCloseable {
+    private final Executor deliveries;
+    private final ScheduledExecutorService ticker;
+    private final ConcurrentMap<Section, Watch> watches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Subject, Set<Watch>> watchesBySubject = new ConcurrentHashMap<>();
+    // keyed by the Section or Subject followed
+    private final ConcurrentMap<Object, List<FeedSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Queue<Watch> changed = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * @param interval   how often changes are published
+     * @param deliveries runs the subscribers' callbacks; not shut down by {@link #close()}
+     */
+    SeatChangeFeed(Duration interval, Executor deliveries) {
+        notNull(interval, "interval cannot be null");
+        notNull(deliveries, "deliveries cannot be null");
+        isTrue(!interval.isNegative() && !interval.isZero(), "interval must be positive, was: %s", interval);
+        this.deliveries = deliveries;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = interval.toNanos();
+        ticker.scheduleAtFixedRate(this::publishChanges, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void watch(Section section) {
+        notNull(section, "section cannot be null");
+        Watch watch = new Watch(section);
+        if (watches.putIfAbsent(section, watch) == null) {
+            watchesBySubject.computeIfAbsent(section.getSubject(), subject -> ConcurrentHashMap.newKeySet()).add(watch);
+            section.addSeatListener(watch);
+        }
+    }
+
+    void watchAll(Collection<Section> sections) {
+        notNull(sections, "sections cannot be null");
+        sections.forEach(this::watch);
+    }
+
+    /**
+     * Stops publishing the section's changes; its subscribers stay subscribed.
+     */
+    void unwatch(Section section) {
+        notNull(section, "section cannot be null");
+        Watch watch = watches.remove(section);
+        if (watch != null) {
+            section.removeSeatListener(watch);
+            watchesBySubject.get(section.getSubject()).remove(watch);
+        }
+    }
+
+    /**
+     * Changes to the section, which is watched from now on.
+     */
+    Flow.Publisher<SeatChange> section(Section section) {
+        watch(section);
+        return subscriber -> subscribe(section, subscriber);
+    }
+
+    /**
+     * Changes to the watched sections of the subject, including sections
+     * watched after subscribing.
+     */
+    Flow.Publisher<SeatChange> subject(Subject subject) {
+        notNull(subject, "subject cannot be null");
+        return subscriber -> subscribe(subject, subscriber);
+    }
+
+    private void subscribe(Object followed, Flow.Subscriber<? super SeatChange> subscriber) {
+        notNull(subscriber, "subscriber cannot be null");
+        FeedSubscription subscription = new FeedSubscription(followed, subscriber);
+        // the subscription is not drained until onSubscribe returns, see FeedSubscription
+        subscriber.onSubscribe(subscription);
+        subscriptions.computeIfAbsent(followed, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        if (followed instanceof Section) {
+            subscription.offer(SeatChange.of((Section) followed));
+        } else {
+            watchesBySubject.getOrDefault(followed, Collections.emptySet())
+                    .forEach(watch -> subscription.offer(SeatChange.of(watch.section)));
+        }
+        if (closed) {
+            subscription.complete();
+        }
+        subscription.subscribed();
+    }
+
+    /**
+     * Publishes the current counts of every section that changed since the
+     * last call. Runs once per interval; package-private for tests.
+     */
+    synchronized void publishChanges() {
+        for (Watch watch = changed.poll(); watch != null; watch = changed.poll()) {
+            // cleared before reading, so a change made while reading flags the section again
+            watch.flagged.set(false);
+            SeatChange change = SeatChange.of(watch.section);
+            if (change.equals(watch.published)) {
+                continue;
+            }
+            watch.published = change;
+            offer(watch.section, change);
+            offer(watch.section.getSubject(), change);
+        }
+    }
+
+    private void offer(Object followed, SeatChange change) {
+        List<FeedSubscription> followers = subscriptions.get(followed);
+        if (followers != null) {
+            for (FeedSubscription subscription : followers) {
+                subscription.offer(change);
+                subscription.schedule();
+            }
+        }
+    }
+
+    /**
+     * Publishes the last changes, completes every subscriber once it has
+     * taken its remaining changes and stops the feed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ticker.shutdown();
+        watches.keySet().forEach(this::unwatch);
+        publishChanges();
+        subscriptions.values().forEach(followers -> followers.forEach(FeedSubscription::complete));
+    }
+
+    private final class Watch implements SeatListener {
+        final Section section;
+        final AtomicBoolean flagged = new AtomicBoolean();
+        // last change published, only touched by publishChanges
+        SeatChange published;
+
+        Watch(Section section) {
+            this.section = section;
+            this.published = SeatChange.of(section);
+        }
+
+        @Override
+        public void seatsChanged(Section changedSection) {
+            if (!flagged.get() && flagged.compareAndSet(false, true)) {
+                changed.add(this);
+            }
+        }
+    }
+
+    /**
+     * Delivers to one subscriber, at most one change per section pending.
+     * Deliveries are serialized by {@code wip}: whoever raises it from 0
+     * runs the drain, and the drain loops until it has seen every raise.
+     * It starts at 1, held by subscribe until onSubscribe has returned.
+     */
+    private final class FeedSubscription implements Flow.Subscription {
+        private final Object followed;
+        private final Flow.Subscriber<? super SeatChange> subscriber;
+        private final Map<Section, SeatChange> pending = new LinkedHashMap<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger(1);
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        FeedSubscription(Object followed, Flow.Subscriber<? super SeatChange> subscriber) {
+            this.followed = followed;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("non-positive subscription request: " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            List<FeedSubscription> followers = subscriptions.get(followed);
+            if (followers != null) {
+                followers.remove(this);
+            }
+        }
+
+        void offer(SeatChange change) {
+            if (!cancelled) {
+                synchronized (pending) {
+                    pending.put(change.getSection(), change);
+                }
+            }
+        }
+
+        void complete() {
+            completed = true;
+            schedule();
+        }
+
+        void subscribed() {
+            deliveries.execute(this::drain);
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                deliveries.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = wip.get();
+            do {
+                deliver();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            if (cancelled) {
+                synchronized (pending) {
+                    pending.clear();
+                }
+                return;
+            }
+            if (error != null) {
+                cancel();
+                subscriber.onError(error);
+                return;
+            }
+            long emitted = 0;
+            long requested = demand.get();
+            while (emitted < requested && !cancelled) {
+                SeatChange next = poll();
+                if (next == null) {
+                    break;
+                }
+                subscriber.onNext(next);
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+            if (completed && !cancelled && isDrained()) {
+                cancel();
+                subscriber.onComplete();
+            }
+        }
+
+        private SeatChange poll() {
+            synchronized (pending) {
+                Iterator<SeatChange> oldest = pending.values().iterator();
+                if (!oldest.hasNext()) {
+                    return null;
+                }
+                SeatChange next = oldest.next();
+                oldest.remove();
+                return next;
+            }
+        }
+
+        private boolean isDrained() {
+            synchronized (pending) {
+                return pending.isEmpty();
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.group24h.enlistment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Lock-free seat pool for a section.
+ *
+ * Seats move between three places: the shared pool, per-thread stripes and
+ * reservations held by students. A seat is only ever handed out after it was
+ * taken from the shared pool with a CAS, so the number of reserved seats can
+ * never exceed the capacity. While a section is far from full, threads take
+ * seats in small batches into their own stripe so they do not all contend on
+ * the shared pool; once the pool runs low every reservation goes straight to
+ * the shared pool and the stripes are drained back into it. Batching starts
+ * above {@link #FAST_PATH_THRESHOLD} free seats, the most the stripes can
+ * strand at once, so on a machine with up to eight cores it covers most of
+ * an ordinary room and on larger ones it is left to big lecture sections.
+ *
+ * A seat moving between the pool and a stripe is briefly in neither, so a
+ * section is only reported full when no such move was in flight while
+ * every stripe and the pool were seen empty.
+ */
+final class SeatCounter {
+    private static final int STRIPES = stripeCount();
+    private static final int BATCH = 4;
+    // one stripe per 64 bytes so neighbouring stripes do not share a cache line
+    private static final int PAD = 16;
+    private static final int FAST_PATH_THRESHOLD = STRIPES * BATCH;
+    // moves between the pool and the stripes: started in the high half, in flight in the low half
+    private static final long MOVE_STARTED = (1L << 32) + 1;
+
+    private final int capacity;
+    private final AtomicInteger pool;
+    private final AtomicIntegerArray stripes = new AtomicIntegerArray(STRIPES * PAD);
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicInteger enlisted = new AtomicInteger();
+    // failed CASes, i.e. how often threads got in each other's way
+    private final LongAdder contention = new LongAdder();
+
+    SeatCounter(int capacity) {
+        this(capacity, 0);
+    }
+
+    SeatCounter(int capacity, int initiallyEnlisted) {
+        isTrue(capacity >= 0, "capacity cannot be negative, was: %d", capacity);
+        isTrue(initiallyEnlisted >= 0 && initiallyEnlisted <= capacity,
+                "enlisted students must be between 0 and %d, was: %d", capacity, initiallyEnlisted);
+        this.capacity = capacity;
+        this.pool = new AtomicInteger(capacity - initiallyEnlisted);
+        this.enlisted.set(initiallyEnlisted);
+    }
+
+    /**
+     * Holds one seat for the caller. The seat must later be either committed
+     * or released.
+     *
+     * @return false if the section is full
+     */
+    boolean tryReserve() {
+        int stripe = stripeIndex();
+        if (takeFromStripe(stripe)) {
+            return true;
+        }
+        while (true) {
+            int available = pool.get();
+            if (available > FAST_PATH_THRESHOLD) {
+                // far from full: move a batch into this thread's stripe and keep one seat
+                moves.addAndGet(MOVE_STARTED);
+                boolean taken = pool.compareAndSet(available, available - BATCH);
+                if (taken) {
+                    stripes.getAndAdd(stripe, BATCH - 1);
+                }
+                moves.decrementAndGet();
+                if (taken) {
+                    return true;
+                }
+                contention.increment();
+            } else if (available > 0) {
+                if (pool.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+                contention.increment();
+            } else if (!drainStripes() && isFull()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Turns a reservation obtained from {@link #tryReserve()} into an enlisted student.
+     */
+    void commit() {
+        enlisted.incrementAndGet();
+    }
+
+    /**
+     * Gives back a reservation that was never committed.
+     */
+    void release() {
+        pool.incrementAndGet();
+    }
+
+    /**
+     * Removes a committed student and gives their seat back.
+     */
+    void cancel() {
+        uncommit();
+        release();
+    }
+
+    /**
+     * Commits a student without reserving a seat first, even if that takes
+     * the section over capacity. Only for restoring saved state.
+     */
+    void forceCommit() {
+        pool.decrementAndGet();
+        enlisted.incrementAndGet();
+    }
+
+    /**
+     * Removes a committed student but keeps their seat reserved, so it can
+     * be handed to someone else without going back to the pool.
+     */
+    void uncommit() {
+        int current;
+        do {
+            current = enlisted.get();
+            isTrue(current > 0, "no enlisted students to remove");
+        } while (!enlisted.compareAndSet(current, current - 1));
+    }
+
+    int getEnlisted() {
+        return enlisted.get();
+    }
+
+    long getContention() {
+        return contention.sum();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Seats that are neither committed nor held by a pending reservation.
+     * Only a hint under concurrent updates.
+     */
+    int getAvailable() {
+        int available = pool.get();
+        for (int i = 0; i < STRIPES; i++) {
+            available += stripes.get(i * PAD);
+        }
+        return available;
+    }
+
+    private boolean takeFromStripe(int stripe) {
+        int local;
+        while ((local = stripes.get(stripe)) > 0) {
+            if (stripes.compareAndSet(stripe, local, local - 1)) {
+                return true;
+            }
+            contention.increment();
+        }
+        return false;
+    }
+
+    /**
+     * Returns every seat parked in a stripe to the shared pool.
+     *
+     * @return true if any seat was recovered
+     */
+    private boolean drainStripes() {
+        boolean recovered = false;
+        moves.addAndGet(MOVE_STARTED);
+        for (int i = 0; i < STRIPES; i++) {
+            int local = stripes.getAndSet(i * PAD, 0);
+            if (local > 0) {
+                pool.addAndGet(local);
+                recovered = true;
+            }
+        }
+        moves.decrementAndGet();
+        return recovered;
+    }
+
+    /**
+     * True if the pool and every stripe were empty at one point with no seat
+     * in between. Seats only enter a stripe through a counted move, so if no
+     * move started or was in flight from the first read to the last, the
+     * stripes were still empty when the pool was read.
+     */
+    private boolean isFull() {
+        long before = moves.get();
+        if ((int) before != 0) {
+            return false;
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            if (stripes.get(i * PAD) > 0) {
+                return false;
+            }
+        }
+        return pool.get() <= 0 && moves.get() == before;
+    }
+
+    private static int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((hash >>> 16) & (STRIPES - 1)) * PAD;
+    }
+
+    private static int stripeCount() {
+        int cpus = Runtime.getRuntime().availableProcessors();
+        int stripes = Integer.highestOneBit(Math.max(1, cpus));
+        return Math.min(stripes, 16);
+    }
+}
@@ -0,0 +1,12 @@
+package com.group24h.enlistment;
+
+/**
+ * Told whenever the number of enlisted students or free seats of a section
+ * may have changed. Called on the thread that changed it, possibly while
+ * that thread holds a student's lock, so it must return quickly and must
+ * not enlist or cancel anyone.
+ */
+@FunctionalInterface
+interface SeatListener {
+    void seatsChanged(Section section);
+}
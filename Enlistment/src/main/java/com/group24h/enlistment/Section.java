@@ -1,53 +1,310 @@
 package com.group24h.enlistment;
 
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.IntConsumer;
 
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.apache.commons.lang3.Validate.*;
 
 class Section {
+    private static final SeatListener[] NO_LISTENERS = new SeatListener[0];
+    private static final AtomicReferenceFieldUpdater<Section, ClassList> CLASS_LIST =
+            AtomicReferenceFieldUpdater.newUpdater(Section.class, ClassList.class, "classList");
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
     private final String sectionId;
     private final Schedule schedule;
     private final Room room;
-    private int enlistedStudents;
+    private final SeatCounter seats;
     private final Subject subject;
+    private volatile CapacityException capacityExceeded;
+    private final Queue<WaitlistEntry> waitlist = new ConcurrentLinkedQueue<>();
+    // replaced as a whole on every change, see ClassList
+    private volatile ClassList classList = ClassList.EMPTY;
+    // copied on change, listeners are added rarely and notified on every seat change
+    private volatile SeatListener[] seatListeners = NO_LISTENERS;
+    private final int index;
+    private final int id;
 
     Section(String sectionId, Schedule schedule, Room room, Subject subject) {
+        this(sectionId, schedule, room, subject, 0);
+    }
+
+    Section(String sectionId, Schedule schedule, Room room, Subject subject, int enlistedStudents) {
         notBlank(sectionId, "sectionId cannot be null, empty or whitespace");
         isTrue(isAlphanumeric(sectionId),
-                "sectionId must be alphanumeric, was: " + sectionId);
+                "sectionId must be alphanumeric, was: %s", sectionId);
+        notNull(schedule, "schedule cannot be null");
+        notNull(room, "room cannot be null");
+        notNull(subject, "subject cannot be null");
 
         this.sectionId = sectionId;
         this.schedule = schedule;
         this.room = room;
-        this.enlistedStudents = 0;
+        this.seats = new SeatCounter(room.getCapacity(), enlistedStudents);
         this.subject = subject;
+        this.index = NEXT_INDEX.getAndIncrement();
+        this.id = subject.getCatalog().registerSection(this);
     }
 
     void checkForConflict(Section other) {
-        if (this.schedule.equals(other.schedule)) {
-            throw new ScheduleConflictException("schedule conflict between current section " +
-                    this + " and new section " + other + " " +
-                    "at schedule " + this.schedule);
+        if (this.schedule.overlaps(other.schedule)) {
+            throw scheduleConflictWith(other);
+        }
+        checkForSubjectConflict(other);
+    }
+
+    void checkForSubjectConflict(Section other) {
+        if (this.subject.equals(other.subject)) {
+            throw subjectConflictWith(other);
+        }
+    }
+
+    ScheduleConflictException scheduleConflictWith(Section other) {
+        return new ScheduleConflictException("schedule conflict between current section " +
+                this + " and new section " + other + " " +
+                "at schedule " + this.schedule);
+    }
+
+    SubjectConflictException subjectConflictWith(Section other) {
+        return new SubjectConflictException("duplicate subjects between current section " +
+                this.subject + " and new section " + other + " " +
+                "at subject " + other.subject);
+    }
+
+    /**
+     * The exception for a full section never changes, so it is created once
+     * and rethrown.
+     */
+    CapacityException capacityExceeded() {
+        CapacityException exception = capacityExceeded;
+        if (exception == null) {
+            exception = new CapacityException("capacity limit reached for sectionId " + this.sectionId);
+            capacityExceeded = exception;
         }
-        /*if (this.subject.equals(other.subject)) {
-            throw new SubjectConflictException("duplicate subjects between current section " +
-                    this.subject + " and new section " + other + " " +
-                    "at subject " + other.subject);
-        }*/
+        return exception;
     }
 
     void checkCapacity() {
-        isTrue(enlistedStudents < room.getCapacity(),"capacity limit reached for sectionId " + this.sectionId);
+        if (seats.getAvailable() <= 0) {
+            throw capacityExceeded();
+        }
+    }
+
+    /**
+     * Holds a seat for a student whose enlistment is still being validated.
+     * The seat must be either committed or released afterwards.
+     *
+     * @return false if the section is full
+     */
+    boolean tryReserveSeat() {
+        return seats.tryReserve();
+    }
+
+    void reserveSeat() {
+        if (!seats.tryReserve()) {
+            throw capacityExceeded();
+        }
+    }
+
+    void commitSeat(int studentNumber) {
+        seats.commit();
+        addToClassList(studentNumber);
+        seatsChanged();
+    }
+
+    /**
+     * Gives back a reservation that was never committed. Must not be called
+     * while holding a student's lock, since the seat may go to a waitlisted
+     * student.
+     */
+    void releaseSeat() {
+        seats.release();
+        promoteWaitlisted();
+        seatsChanged();
     }
 
     void addEnlistedStudent() {
-        this.enlistedStudents += 1;
+        reserveSeat();
+        seats.commit();
+        seatsChanged();
+    }
+
+    /**
+     * Removes an enlisted student. If anyone is waitlisted, the seat goes
+     * straight to the first of them who can still take it instead of back to
+     * the pool. Must not be called while holding a student's lock.
+     */
+    void removeEnlistedStudent(int studentNumber) {
+        removeFromClassList(studentNumber);
+        if (waitlist.isEmpty()) {
+            seats.cancel();
+        } else {
+            seats.uncommit();
+            handOverReservedSeat();
+        }
+        promoteWaitlisted();
+        seatsChanged();
+    }
+
+    /**
+     * Puts the student at the end of this section's waitlist. The returned
+     * future completes once a seat was offered to the student, with the
+     * result of enlisting them in it.
+     */
+    CompletableFuture<EnlistmentResult> joinWaitlist(Student student) {
+        notNull(student, "student cannot be null");
+        WaitlistEntry entry = new WaitlistEntry(student);
+        waitlist.add(entry);
+        // a seat may have been freed between the student finding the section full and joining
+        promoteWaitlisted();
+        return entry;
+    }
+
+    int getWaitlistSize() {
+        return waitlist.size();
+    }
+
+    private void promoteWaitlisted() {
+        while (!waitlist.isEmpty() && seats.tryReserve()) {
+            handOverReservedSeat();
+        }
+    }
+
+    /**
+     * Offers a reserved seat to the waitlist in order, releasing it to the
+     * pool if nobody takes it.
+     */
+    private void handOverReservedSeat() {
+        WaitlistEntry entry;
+        while ((entry = waitlist.poll()) != null) {
+            if (entry.offer(this)) {
+                return;
+            }
+        }
+        seats.release();
+    }
+
+    /**
+     * Puts a student back into the section while recovering saved state. The
+     * capacity is not checked, since a snapshot can briefly hold more
+     * students than seats until the journal tail is replayed.
+     */
+    void restoreEnlistedStudent(int studentNumber) {
+        seats.forceCommit();
+        addToClassList(studentNumber);
+        seatsChanged();
+    }
+
+    synchronized void addSeatListener(SeatListener listener) {
+        notNull(listener, "listener cannot be null");
+        SeatListener[] current = seatListeners;
+        SeatListener[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = listener;
+        seatListeners = added;
+    }
+
+    synchronized void removeSeatListener(SeatListener listener) {
+        SeatListener[] current = seatListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                SeatListener[] removed = new SeatListener[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, i);
+                System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+                seatListeners = removed;
+                return;
+            }
+        }
+    }
+
+    private void seatsChanged() {
+        for (SeatListener listener : seatListeners) {
+            listener.seatsChanged(this);
+        }
+    }
+
+    /**
+     * The students enlisted in this section as of now. Reading it never
+     * locks or copies; the snapshot does not change afterwards. Students
+     * counted through {@link #addEnlistedStudent()} or the constructor have
+     * no number and are not on the list.
+     */
+    ClassList getClassList() {
+        return classList;
+    }
+
+    void forEachStudent(IntConsumer action) {
+        notNull(action, "action cannot be null");
+        classList.forEach(action);
+    }
+
+    boolean hasStudent(int studentNumber) {
+        return classList.contains(studentNumber);
+    }
+
+    private void addToClassList(int studentNumber) {
+        ClassList current;
+        do {
+            current = classList;
+        } while (!CLASS_LIST.compareAndSet(this, current, current.with(studentNumber)));
+    }
+
+    private void removeFromClassList(int studentNumber) {
+        ClassList current;
+        do {
+            current = classList;
+        } while (!CLASS_LIST.compareAndSet(this, current, current.without(studentNumber)));
+    }
+
+    /**
+     * Number of this section in order of creation, unique within the JVM.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Dense id of this section within the catalog of its subject.
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Seats still free. Only a hint under concurrent enlistment.
+     */
+    int getAvailableSeats() {
+        return seats.getAvailable();
+    }
+
+    /**
+     * How often concurrent enlistments in this section had to retry taking
+     * or returning a seat.
+     */
+    long getSeatContention() {
+        return seats.getContention();
+    }
+
+    int getNumberOfStudents() {
+        return seats.getEnlisted();
+    }
+
+    String getSectionId() {
+        return sectionId;
+    }
+
+    Schedule getSchedule() {
+        return schedule;
     }
 
-    void removeEnlistedStudent() {
-        this.enlistedStudents -= 1;
+    Room getRoom() {
+        return room;
     }
 
     public Subject getSubject() {
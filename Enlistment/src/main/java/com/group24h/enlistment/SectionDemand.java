@@ -0,0 +1,49 @@
+package com.group24h.enlistment;
+
+import static org.apache.commons.lang3.StringUtils.isAlphanumeric;
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * A section that still needs a room and a schedule: how many students it
+ * should seat and how many 30-minute slots each meeting lasts.
+ */
+final class SectionDemand {
+    private final String sectionId;
+    private final Subject subject;
+    private final int expectedStudents;
+    private final int slots;
+
+    SectionDemand(String sectionId, Subject subject, int expectedStudents, int slots) {
+        notBlank(sectionId, "sectionId cannot be null, empty or whitespace");
+        isTrue(isAlphanumeric(sectionId), "sectionId must be alphanumeric, was: %s", sectionId);
+        notNull(subject, "subject cannot be null");
+        isTrue(expectedStudents >= 0, "expectedStudents cannot be negative, was: %d", expectedStudents);
+        isTrue(slots > 0 && slots <= Period.SLOTS_PER_DAY,
+                "slots must be between 1 and %d, was: %d", Period.SLOTS_PER_DAY, slots);
+        this.sectionId = sectionId;
+        this.subject = subject;
+        this.expectedStudents = expectedStudents;
+        this.slots = slots;
+    }
+
+    String getSectionId() {
+        return sectionId;
+    }
+
+    Subject getSubject() {
+        return subject;
+    }
+
+    int getExpectedStudents() {
+        return expectedStudents;
+    }
+
+    int getSlots() {
+        return slots;
+    }
+
+    @Override
+    public String toString() {
+        return sectionId;
+    }
+}
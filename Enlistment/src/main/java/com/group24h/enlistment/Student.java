@@ -1,50 +1,516 @@
 package com.group24h.enlistment;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.apache.commons.lang3.Validate.*;
 
 class Student {
 
     private final int studentNumber;
-    private Collection<Section> sections = new HashSet<>();
-    private Collection<Subject> completedSubjects = new HashSet<>();
+    // the catalog of every subject the student completes or enlists in
+    private final SubjectCatalog catalog;
+    // written under the lock, read without it
+    private volatile StudentSchedule schedule;
+    private final SubjectSet completedSubjects = new SubjectSet();
+    // subjects with prerequisites that are all completed, found by following the dependents
+    // of the completed subjects; only valid for subject ids below unlockedUpTo
+    private final SubjectSet unlockedSubjects = new SubjectSet();
+    private final int unlockedUpTo;
+    private final SubjectSet enlistedSubjects = new SubjectSet();
+    // union of the schedule occupancies of all enlisted sections
+    private long occupancy;
+    // time slots and subjects held for sections whose seats are being reserved on other nodes
+    private long heldOccupancy;
+    private final SubjectSet heldSubjects = new SubjectSet();
+    // the held sections themselves, to name the one a rejected enlistment clashes with
+    private final List<Section> heldSections = new ArrayList<>();
 
     Student(int studentNumber, Collection<Section> sections, Collection<Subject> completedSubjects) {
+        this(SubjectCatalog.getDefault(), studentNumber, sections, completedSubjects);
+    }
+
+    Student(SubjectCatalog catalog, int studentNumber, Collection<Section> sections, Collection<Subject> completedSubjects) {
         isTrue (studentNumber >= 0,
-                "studentNumber cannot be negative, was: " + studentNumber);
+                "studentNumber cannot be negative, was: %d", studentNumber);
 
+        notNull(catalog, "catalog cannot be null");
         notNull(sections, "sections cannot be null");
         this.studentNumber = studentNumber;
-        this.sections.addAll(sections);
-        this.sections.removeIf(Objects::isNull);
-        this.completedSubjects.addAll(completedSubjects);
-        this.completedSubjects.removeIf(Objects::isNull);
+        this.catalog = catalog;
+        this.schedule = StudentSchedule.empty(catalog);
+        sections.stream()
+                .filter(Objects::nonNull)
+                .forEach(section -> {
+                    checkCatalog(section.getSubject());
+                    if (!schedule.contains(section)) {
+                        schedule = schedule.with(section);
+                        this.occupancy |= section.getSchedule().getOccupancy();
+                        this.enlistedSubjects.add(section.getSubject().getId());
+                    }
+                });
+        notNull(completedSubjects, "completedSubjects cannot be null");
+        completedSubjects.stream()
+                .filter(Objects::nonNull)
+                .forEach(subject -> {
+                    checkCatalog(subject);
+                    this.completedSubjects.add(subject.getId());
+                });
+        // subjects created from here on are not linked yet, they are checked directly
+        this.unlockedUpTo = catalog.size();
+        SubjectSet completed = this.completedSubjects;
+        for (int id = completed.nextSetBit(0); id >= 0; id = completed.nextSetBit(id + 1)) {
+            unlockDependents(catalog.get(id));
+        }
     }
 
     Student(int studentNumber) {
         this(studentNumber, Collections.emptyList(), Collections.emptyList());
     }
 
-    void enlist(Section newSection) {
+    synchronized void enlist(Section newSection) {
+        EnlistmentResult result = tryEnlist(newSection);
+        if (!result.isSuccess()) {
+            throw rejection(result, newSection);
+        }
+    }
+
+    /**
+     * Same as {@link #enlist(Section)} but reports a rejection as a result
+     * instead of throwing, without building any message.
+     */
+    synchronized EnlistmentResult tryEnlist(Section newSection) {
         notNull(newSection, "section cannot be null");
-        sections.forEach(currSection -> currSection.checkForConflict(newSection));
-        newSection.getSubject().checkPrerequisites(completedSubjects);
-        newSection.checkCapacity();
-        newSection.addEnlistedStudent();
-        sections.add(newSection);
+        EnlistmentMetrics metrics = EnlistmentMetrics.current();
+        long start = metrics.start();
+        EnlistmentResult result = reserveAndCommit(newSection);
+        metrics.recordEnlistment(result, start);
+        return result;
+    }
 
+    private EnlistmentResult reserveAndCommit(Section newSection) {
+        EnlistmentResult result = check(newSection, occupancy, enlistedSubjects);
+        if (!result.isSuccess()) {
+            return result;
+        }
+        if (!newSection.tryReserveSeat()) {
+            return EnlistmentResult.SECTION_FULL;
+        }
+        schedule = schedule.with(newSection);
+        occupancy |= newSection.getSchedule().getOccupancy();
+        enlistedSubjects.add(newSection.getSubject().getId());
+        newSection.commitSeat(studentNumber);
+        return EnlistmentResult.ENLISTED;
+    }
+
+    /**
+     * Enlists in all the given sections or in none of them. Conflicts among the
+     * new sections and with the current schedule, duplicate subjects and
+     * prerequisites are validated in one pass before any seat is taken; if a
+     * seat cannot be had for every section, the seats already reserved by this
+     * call are given back before the exception is thrown.
+     */
+    void enlistAll(Collection<Section> newSections) {
+        List<Section> toRelease = new ArrayList<>();
+        try {
+            enlistAll(newSections, toRelease);
+        } finally {
+            // outside the lock, a released seat may go to a waitlisted student
+            toRelease.forEach(Section::releaseSeat);
+        }
+    }
+
+    private synchronized void enlistAll(Collection<Section> newSections, List<Section> toRelease) {
+        notNull(newSections, "sections cannot be null");
+        noNullElements(newSections, "sections cannot contain null");
+
+        long batchOccupancy = occupancy;
+        SubjectSet batchSubjects = enlistedSubjects.copy();
+        List<Section> batch = new ArrayList<>(newSections.size());
+        for (Section newSection : newSections) {
+            EnlistmentResult result = check(newSection, batchOccupancy, batchSubjects);
+            if (!result.isSuccess()) {
+                List<Section> enlistedAndBatch = new ArrayList<>(schedule);
+                enlistedAndBatch.addAll(batch);
+                throw rejection(result, newSection, enlistedAndBatch);
+            }
+            batchOccupancy |= newSection.getSchedule().getOccupancy();
+            batchSubjects.add(newSection.getSubject().getId());
+            batch.add(newSection);
+        }
+
+        for (int reserved = 0; reserved < batch.size(); reserved++) {
+            Section newSection = batch.get(reserved);
+            if (!newSection.tryReserveSeat()) {
+                toRelease.addAll(batch.subList(0, reserved));
+                throw newSection.capacityExceeded();
+            }
+        }
+        schedule = schedule.withAll(batch);
+        occupancy = batchOccupancy;
+        enlistedSubjects.addAll(batchSubjects);
+        batch.forEach(section -> section.commitSeat(studentNumber));
+    }
+
+    /**
+     * Enlists in the section if possible, otherwise joins its waitlist when
+     * the section is full. The future completes with the result of the
+     * enlistment, immediately unless the student was waitlisted.
+     */
+    CompletableFuture<EnlistmentResult> enlistOrWaitlist(Section newSection) {
+        EnlistmentResult result = tryEnlist(newSection);
+        if (result == EnlistmentResult.SECTION_FULL) {
+            return newSection.joinWaitlist(this);
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+
+    /**
+     * Takes a seat the section already reserved on this student's behalf,
+     * after re-checking conflicts and prerequisites against the student's
+     * current schedule. The seat is not released on a rejection.
+     */
+    synchronized EnlistmentResult acceptReservedSeat(Section newSection) {
+        EnlistmentResult result = check(newSection, occupancy, enlistedSubjects);
+        if (result.isSuccess()) {
+            schedule = schedule.with(newSection);
+            occupancy |= newSection.getSchedule().getOccupancy();
+            enlistedSubjects.add(newSection.getSubject().getId());
+            newSection.commitSeat(studentNumber);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the same checks as {@link #tryEnlist(Section)} against the
+     * current schedule, apart from capacity, without taking a seat.
+     */
+    synchronized EnlistmentResult checkEnlistment(Section newSection) {
+        notNull(newSection, "section cannot be null");
+        return check(newSection, occupancy, enlistedSubjects);
+    }
+
+    /**
+     * Records a newly completed subject, e.g. when grades are posted, and
+     * makes the subjects that needed it eligible once their other
+     * prerequisites are completed too.
+     */
+    synchronized void addCompletedSubject(Subject subject) {
+        notNull(subject, "subject cannot be null");
+        checkCatalog(subject);
+        if (!completedSubjects.contains(subject.getId())) {
+            completedSubjects.add(subject.getId());
+            unlockDependents(subject);
+        }
+    }
+
+    private void unlockDependents(Subject completed) {
+        for (int dependentId : completed.getDependentIds()) {
+            if (catalog.get(dependentId).hasPrerequisites(completedSubjects)) {
+                unlockedSubjects.add(dependentId);
+            }
+        }
+    }
+
+    synchronized boolean isEligibleFor(Subject subject) {
+        notNull(subject, "subject cannot be null");
+        checkCatalog(subject);
+        return isEligible(subject);
+    }
+
+    private boolean isEligible(Subject subject) {
+        int id = subject.getId();
+        if (id >= unlockedUpTo) {
+            return subject.hasPrerequisites(completedSubjects);
+        }
+        return subject.hasNoPrerequisites() || unlockedSubjects.contains(id);
+    }
+
+    /**
+     * A copy of the completed subjects' ids.
+     */
+    synchronized SubjectSet getCompletedSubjects() {
+        return completedSubjects.copy();
+    }
+
+    /**
+     * Every subject in the catalog the student has the prerequisites for
+     * and has not completed yet.
+     */
+    synchronized List<Subject> getEligibleSubjects() {
+        List<Subject> eligible = new ArrayList<>();
+        // below unlockedUpTo the eligible subjects are exactly these two sets
+        SubjectSet candidates = catalog.getIdsWithoutPrerequisites();
+        candidates.addAll(unlockedSubjects);
+        for (int id = candidates.nextSetBit(0); id >= 0 && id < unlockedUpTo; id = candidates.nextSetBit(id + 1)) {
+            if (!completedSubjects.contains(id)) {
+                eligible.add(catalog.get(id));
+            }
+        }
+        for (int id = unlockedUpTo, size = catalog.size(); id < size; id++) {
+            Subject subject = catalog.get(id);
+            if (!completedSubjects.contains(id) && subject.hasPrerequisites(completedSubjects)) {
+                eligible.add(subject);
+            }
+        }
+        return eligible;
+    }
+
+    private EnlistmentResult check(Section newSection, long occupied, SubjectSet subjects) {
+        checkCatalog(newSection.getSubject());
+        if (((occupied | heldOccupancy) & newSection.getSchedule().getOccupancy()) != 0) {
+            return EnlistmentResult.SCHEDULE_CONFLICT;
+        }
+        Subject newSubject = newSection.getSubject();
+        if (subjects.contains(newSubject.getId()) || heldSubjects.contains(newSubject.getId())) {
+            return EnlistmentResult.SUBJECT_CONFLICT;
+        }
+        if (!isEligible(newSubject)) {
+            return EnlistmentResult.MISSING_PREREQUISITE;
+        }
+        return EnlistmentResult.ENLISTED;
+    }
+
+    private void checkCatalog(Subject subject) {
+        // not isTrue, whose varargs would allocate on every enlistment
+        if (subject.getCatalog() != catalog) {
+            throw new IllegalArgumentException("subject " + subject + " is not in the catalog of " + this);
+        }
+    }
+
+    /**
+     * Builds the exception for a rejected enlistment, naming the enlisted or
+     * held section it clashes with where there is one.
+     */
+    synchronized RuntimeException rejection(EnlistmentResult result, Section newSection) {
+        return rejection(result, newSection, schedule);
+    }
+
+    private RuntimeException rejection(EnlistmentResult result, Section newSection, Collection<Section> against) {
+        switch (result) {
+            case SCHEDULE_CONFLICT:
+                for (Collection<Section> sections : List.of(against, heldSections)) {
+                    for (Section currSection : sections) {
+                        if (currSection.getSchedule().overlaps(newSection.getSchedule())) {
+                            return currSection.scheduleConflictWith(newSection);
+                        }
+                    }
+                }
+                // the clashing section was given up since the check
+                return new ScheduleConflictException("schedule conflict with new section " + newSection);
+            case SUBJECT_CONFLICT:
+                for (Collection<Section> sections : List.of(against, heldSections)) {
+                    for (Section currSection : sections) {
+                        if (currSection.getSubject().equals(newSection.getSubject())) {
+                            return currSection.subjectConflictWith(newSection);
+                        }
+                    }
+                }
+                return new SubjectConflictException("duplicate subject " + newSection.getSubject() +
+                        " of new section " + newSection);
+            case MISSING_PREREQUISITE:
+                return newSection.getSubject().missingPrerequisite(completedSubjects);
+            case SECTION_FULL:
+                return newSection.capacityExceeded();
+            default:
+                break;
+        }
+        return new IllegalStateException("no rejection for " + result + " of " + newSection);
     }
 
     void cancelEnlistment(Section section) {
         notNull(section, "section cannot be null");
-        isTrue(sections.contains(section), "student is not enlisted in section");
-        section.removeEnlistedStudent();
-        sections.remove(section);
+        EnlistmentMetrics metrics = EnlistmentMetrics.current();
+        long start = metrics.start();
+        synchronized (this) {
+            isTrue(schedule.contains(section), "student is not enlisted in section");
+            schedule = schedule.without(section);
+            occupancy &= ~section.getSchedule().getOccupancy();
+            enlistedSubjects.remove(section.getSubject().getId());
+        }
+        // outside the lock, the freed seat may go to a waitlisted student
+        section.removeEnlistedStudent(studentNumber);
+        metrics.recordCancellation(start);
+    }
+
+    /**
+     * Validates the sections as a batch, like {@link #enlistAll(Collection)},
+     * and holds their time slots and subjects without taking any seat, so
+     * that no other enlistment can take them while the seats are reserved
+     * elsewhere. The hold must be either completed or released.
+     */
+    synchronized EnlistmentResult holdEnlistments(Collection<Section> newSections) {
+        notNull(newSections, "sections cannot be null");
+        noNullElements(newSections, "sections cannot contain null");
+        long batchOccupancy = occupancy;
+        SubjectSet batchSubjects = enlistedSubjects.copy();
+        for (Section newSection : newSections) {
+            EnlistmentResult result = check(newSection, batchOccupancy, batchSubjects);
+            if (!result.isSuccess()) {
+                return result;
+            }
+            batchOccupancy |= newSection.getSchedule().getOccupancy();
+            batchSubjects.add(newSection.getSubject().getId());
+        }
+        for (Section newSection : newSections) {
+            heldOccupancy |= newSection.getSchedule().getOccupancy();
+            heldSubjects.add(newSection.getSubject().getId());
+            heldSections.add(newSection);
+        }
+        return EnlistmentResult.ENLISTED;
+    }
+
+    /**
+     * Turns a hold into enlistments once the seats were committed by the
+     * nodes that own the sections.
+     */
+    synchronized void completeEnlistments(Collection<Section> sections) {
+        releaseHold(sections);
+        schedule = schedule.withAll(sections);
+        for (Section section : sections) {
+            occupancy |= section.getSchedule().getOccupancy();
+            enlistedSubjects.add(section.getSubject().getId());
+        }
+    }
+
+    synchronized void releaseHold(Collection<Section> sections) {
+        for (Section section : sections) {
+            heldOccupancy &= ~section.getSchedule().getOccupancy();
+            heldSubjects.remove(section.getSubject().getId());
+            heldSections.remove(section);
+        }
+    }
+
+    /**
+     * Takes the section off the student's schedule without giving back its
+     * seat, for when the seat is given back by the node that owns it.
+     */
+    synchronized void removeEnlistment(Section section) {
+        notNull(section, "section cannot be null");
+        isTrue(schedule.contains(section), "student is not enlisted in section");
+        schedule = schedule.without(section);
+        occupancy &= ~section.getSchedule().getOccupancy();
+        enlistedSubjects.remove(section.getSubject().getId());
+    }
+
+    /**
+     * Moves the student from one section to another in one step. The new
+     * section is checked against the schedule without the old one, and its
+     * seat is taken before the old seat is given up, so a rejected swap
+     * leaves the student in the old section.
+     */
+    void swap(Section oldSection, Section newSection) {
+        EnlistmentResult result = trySwap(oldSection, newSection);
+        if (!result.isSuccess()) {
+            synchronized (this) {
+                throw rejection(result, newSection, schedule.without(oldSection));
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #swap(Section, Section)} but reports a rejection as a
+     * result instead of throwing.
+     */
+    EnlistmentResult trySwap(Section oldSection, Section newSection) {
+        notNull(oldSection, "oldSection cannot be null");
+        notNull(newSection, "newSection cannot be null");
+        isTrue(oldSection != newSection, "cannot swap section %s with itself", oldSection);
+        EnlistmentMetrics metrics = EnlistmentMetrics.current();
+        long start = metrics.start();
+        EnlistmentResult result = reserveAndSwap(oldSection, newSection);
+        if (result.isSuccess()) {
+            // outside the lock, the freed seat may go to a waitlisted student
+            oldSection.removeEnlistedStudent(studentNumber);
+        }
+        metrics.recordSwap(result, start);
+        return result;
+    }
+
+    private synchronized EnlistmentResult reserveAndSwap(Section oldSection, Section newSection) {
+        isTrue(schedule.contains(oldSection), "student is not enlisted in section");
+        long oldOccupancy = oldSection.getSchedule().getOccupancy();
+        int oldSubject = oldSection.getSubject().getId();
+        EnlistmentResult result;
+        enlistedSubjects.remove(oldSubject);
+        try {
+            result = check(newSection, occupancy & ~oldOccupancy, enlistedSubjects);
+            if (result.isSuccess() && !newSection.tryReserveSeat()) {
+                result = EnlistmentResult.SECTION_FULL;
+            }
+        } finally {
+            // put back even when check throws, so a rejected swap changes nothing
+            enlistedSubjects.add(oldSubject);
+        }
+        if (!result.isSuccess()) {
+            return result;
+        }
+        schedule = schedule.replacing(oldSection, newSection);
+        occupancy = occupancy & ~oldOccupancy | newSection.getSchedule().getOccupancy();
+        enlistedSubjects.remove(oldSubject);
+        enlistedSubjects.add(newSection.getSubject().getId());
+        newSection.commitSeat(studentNumber);
+        return EnlistmentResult.ENLISTED;
+    }
+
+    /**
+     * Applies a saved enlistment without validating it. Does nothing if the
+     * student is already enlisted in the section, so replaying the journal
+     * over a snapshot that already contains some of its operations is safe.
+     */
+    synchronized void restoreEnlistment(Section section) {
+        if (!schedule.contains(section)) {
+            schedule = schedule.with(section);
+            occupancy |= section.getSchedule().getOccupancy();
+            enlistedSubjects.add(section.getSubject().getId());
+            section.restoreEnlistedStudent(studentNumber);
+        }
+    }
+
+    /**
+     * Applies a saved cancellation. Does nothing if the student is not
+     * enlisted in the section.
+     */
+    void restoreCancellation(Section section) {
+        synchronized (this) {
+            if (!schedule.contains(section)) {
+                return;
+            }
+            schedule = schedule.without(section);
+            occupancy &= ~section.getSchedule().getOccupancy();
+            enlistedSubjects.remove(section.getSubject().getId());
+        }
+        section.removeEnlistedStudent(studentNumber);
+    }
+
+    int getStudentNumber() {
+        return studentNumber;
+    }
+
+    SubjectCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * The sections the student is enlisted in as of now, as an immutable
+     * snapshot. Reading it never locks or copies.
+     */
+    StudentSchedule getSections() {
+        return schedule;
+    }
+
+    /**
+     * Passes every enlisted section to the action, from the current
+     * snapshot.
+     */
+    void forEachSection(Consumer<Section> action) {
+        notNull(action, "action cannot be null");
+        schedule.forEach(action);
     }
 
-    Collection<Section> getSections() {
-        return new ArrayList<>(sections);
+    boolean isEnlistedIn(Section section) {
+        return schedule.contains(section);
     }
 
     @Override
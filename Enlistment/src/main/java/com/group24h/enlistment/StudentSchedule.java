@@ -0,0 +1,118 @@
+package com.group24h.enlistment;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Immutable snapshot of the sections a student is enlisted in. Every change
+ * to the student's schedule publishes a new snapshot with the next version,
+ * so a reader can hold on to one and iterate it without locking while the
+ * student keeps enlisting and cancelling.
+ *
+ * The sections are kept as their ids in the student's catalog and looked up
+ * on access, so a snapshot costs an int per section and never boxes.
+ * Sections are compared by identity.
+ */
+final class StudentSchedule extends AbstractList<Section> implements RandomAccess {
+    private static final int[] NO_SECTIONS = new int[0];
+
+    private final SubjectCatalog catalog;
+    private final int[] sectionIds;
+    private final long version;
+
+    private StudentSchedule(SubjectCatalog catalog, int[] sectionIds, long version) {
+        this.catalog = catalog;
+        this.sectionIds = sectionIds;
+        this.version = version;
+    }
+
+    static StudentSchedule empty(SubjectCatalog catalog) {
+        return new StudentSchedule(catalog, NO_SECTIONS, 0);
+    }
+
+    /**
+     * Starts at 0 for a student with no sections and goes up by one with
+     * every change.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Section get(int index) {
+        return catalog.getSection(sectionIds[index]);
+    }
+
+    @Override
+    public int size() {
+        return sectionIds.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Section) || ((Section) o).getSubject().getCatalog() != catalog) {
+            return -1;
+        }
+        int id = ((Section) o).getId();
+        for (int i = 0; i < sectionIds.length; i++) {
+            if (sectionIds[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    StudentSchedule with(Section section) {
+        int[] added = Arrays.copyOf(sectionIds, sectionIds.length + 1);
+        added[sectionIds.length] = idOf(section);
+        return new StudentSchedule(catalog, added, version + 1);
+    }
+
+    StudentSchedule withAll(Collection<Section> newSections) {
+        int[] added = Arrays.copyOf(sectionIds, sectionIds.length + newSections.size());
+        int next = sectionIds.length;
+        for (Section section : newSections) {
+            added[next++] = idOf(section);
+        }
+        return new StudentSchedule(catalog, added, version + 1);
+    }
+
+    /**
+     * Same as {@code without(oldSection).with(newSection)} in one copy,
+     * keeping the position of the replaced section.
+     */
+    StudentSchedule replacing(Section oldSection, Section newSection) {
+        int index = indexOf(oldSection);
+        if (index < 0) {
+            return with(newSection);
+        }
+        int[] replaced = sectionIds.clone();
+        replaced[index] = idOf(newSection);
+        return new StudentSchedule(catalog, replaced, version + 1);
+    }
+
+    StudentSchedule without(Section section) {
+        int index = indexOf(section);
+        if (index < 0) {
+            return this;
+        }
+        int[] removed = new int[sectionIds.length - 1];
+        System.arraycopy(sectionIds, 0, removed, 0, index);
+        System.arraycopy(sectionIds, index + 1, removed, index, sectionIds.length - index - 1);
+        return new StudentSchedule(catalog, removed, version + 1);
+    }
+
+    private int idOf(Section section) {
+        if (section.getSubject().getCatalog() != catalog) {
+            throw new IllegalArgumentException("section " + section + " is not in the catalog of the schedule");
+        }
+        return section.getId();
+    }
+}
@@ -1,22 +1,94 @@
 package com.group24h.enlistment;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Objects;
 
 import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
 
 public class Subject {
     private final String subjectId;
+    private final SubjectCatalog catalog;
+    private final int id;
     private Collection<Subject> prerequisites = new HashSet<>();
+    private final SubjectSet prerequisiteIds = new SubjectSet();
+    // ids of the subjects that list this one as a direct prerequisite, only added to by the catalog
+    private volatile int[] dependentIds = new int[0];
 
     public Subject(String subjectId, Collection<Subject> prerequisites) {
+        this(SubjectCatalog.getDefault(), subjectId, prerequisites);
+    }
+
+    Subject(SubjectCatalog catalog, String subjectId, Collection<Subject> prerequisites) {
+        notNull(catalog, "catalog cannot be null");
+        notNull(prerequisites, "prerequisites cannot be null");
         this.subjectId = subjectId;
-        this.prerequisites = prerequisites;
+        this.catalog = catalog;
+        this.prerequisites.addAll(prerequisites);
+        this.prerequisites.removeIf(Objects::isNull);
+        for (Subject prerequisite : this.prerequisites) {
+            isTrue(prerequisite.catalog == catalog, "prerequisite %s is in another catalog", prerequisite);
+            prerequisiteIds.add(prerequisite.id);
+        }
+        this.id = catalog.register(this);
+    }
+
+    void checkPrerequisites(SubjectSet completedSubjects) {
+        if (!hasPrerequisites(completedSubjects)) {
+            throw missingPrerequisite(completedSubjects);
+        }
+    }
+
+    MissingPrerequisiteException missingPrerequisite(SubjectSet completedSubjects) {
+        int missing = completedSubjects.firstMissing(prerequisiteIds);
+        return new MissingPrerequisiteException("missing prerequisite: " + catalog.get(missing));
     }
 
-    void checkPrerequisites(Collection<Subject> completedSubjects) {
-        prerequisites.forEach(currPrerequisite ->
-                isTrue(completedSubjects.contains(currPrerequisite), "missing prerequisite: " + currPrerequisite));
+    boolean hasPrerequisites(SubjectSet completedSubjects) {
+        return completedSubjects.containsAll(prerequisiteIds);
     }
 
+    boolean hasNoPrerequisites() {
+        return prerequisites.isEmpty();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getSubjectId() {
+        return subjectId;
+    }
+
+    SubjectCatalog getCatalog() {
+        return catalog;
+    }
+
+    void addDependent(int dependentId) {
+        int[] current = dependentIds;
+        int[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = dependentId;
+        dependentIds = added;
+    }
+
+    /**
+     * Ids of the subjects this one is a direct prerequisite of. Callers must not modify it.
+     */
+    int[] getDependentIds() {
+        return dependentIds;
+    }
+
+    /**
+     * Direct prerequisites as a bitset. Callers must not modify it.
+     */
+    SubjectSet getPrerequisiteIds() {
+        return prerequisiteIds;
+    }
+
+    @Override
+    public String toString() {
+        return subjectId;
+    }
 }
@@ -0,0 +1,93 @@
+package com.group24h.enlistment;
+
+import java.util.Arrays;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * The subjects of a term. Hands out dense integer ids to subjects as they
+ * are created, so that sets of subjects can be stored as {@link SubjectSet}
+ * bitsets, and maps ids back to their subjects. Ids only mean something
+ * within one catalog, so a student and the subjects it enlists in or has
+ * completed must share one. Sections get ids of their own the same way, in
+ * the catalog of their subject, so a student's schedule can be stored as an
+ * array of ids.
+ *
+ * A loaded or restored term gets a catalog of its own, which goes away with
+ * it. Subjects and students created without one share the default catalog.
+ */
+final class SubjectCatalog {
+    private static final SubjectCatalog DEFAULT = new SubjectCatalog();
+
+    private Subject[] subjects = new Subject[64];
+    private int size;
+    private final SubjectSet withoutPrerequisites = new SubjectSet();
+    // written under the lock, read without it, see getSection
+    private volatile Section[] sections = new Section[64];
+    private int sectionCount;
+
+    SubjectCatalog() {
+    }
+
+    /**
+     * The catalog of subjects and students created without one, such as
+     * hand-built catalogs in tests.
+     */
+    static SubjectCatalog getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Also adds the new subject to the dependents of its prerequisites, under
+     * the same lock, so every subject below {@link #size()} is linked.
+     */
+    synchronized int register(Subject subject) {
+        if (size == subjects.length) {
+            subjects = Arrays.copyOf(subjects, size * 2);
+        }
+        subjects[size] = subject;
+        SubjectSet prerequisiteIds = subject.getPrerequisiteIds();
+        for (int id = prerequisiteIds.nextSetBit(0); id >= 0; id = prerequisiteIds.nextSetBit(id + 1)) {
+            subjects[id].addDependent(size);
+        }
+        if (subject.hasNoPrerequisites()) {
+            withoutPrerequisites.add(size);
+        }
+        return size++;
+    }
+
+    synchronized Subject get(int id) {
+        isTrue(id >= 0 && id < size, "unknown subject id: %d", id);
+        return subjects[id];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int registerSection(Section section) {
+        Section[] current = sections;
+        if (sectionCount == current.length) {
+            current = Arrays.copyOf(current, sectionCount * 2);
+        }
+        current[sectionCount] = section;
+        // written back even when not grown, so readers see the new section
+        sections = current;
+        return sectionCount++;
+    }
+
+    /**
+     * Not locked, so reading a student's schedule stays lock-free. Only valid
+     * for ids handed out by {@link #registerSection(Section)}.
+     */
+    Section getSection(int id) {
+        return sections[id];
+    }
+
+    /**
+     * A copy of the ids of the subjects that have no prerequisites.
+     */
+    synchronized SubjectSet getIdsWithoutPrerequisites() {
+        return withoutPrerequisites.copy();
+    }
+}
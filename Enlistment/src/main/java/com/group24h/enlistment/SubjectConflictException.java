@@ -2,6 +2,6 @@ package com.group24h.enlistment;
 
 public class SubjectConflictException extends RuntimeException{
     SubjectConflictException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 }
@@ -0,0 +1,124 @@
+package com.group24h.enlistment;
+
+import java.util.Arrays;
+
+/**
+ * Bitset of subject ids as handed out by a {@link SubjectCatalog}. Membership,
+ * subset and first-missing checks work a 64-bit word at a time and never
+ * allocate.
+ */
+final class SubjectSet {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] words;
+
+    SubjectSet() {
+        this.words = EMPTY;
+    }
+
+    private SubjectSet(long[] words) {
+        this.words = words;
+    }
+
+    SubjectSet copy() {
+        return new SubjectSet(words.clone());
+    }
+
+    void add(int id) {
+        int word = id >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] |= 1L << id;
+    }
+
+    void addAll(SubjectSet other) {
+        long[] otherWords = other.words;
+        if (otherWords.length > words.length) {
+            words = Arrays.copyOf(words, otherWords.length);
+        }
+        for (int i = 0; i < otherWords.length; i++) {
+            words[i] |= otherWords[i];
+        }
+    }
+
+    void remove(int id) {
+        int word = id >>> 6;
+        if (word < words.length) {
+            words[word] &= ~(1L << id);
+        }
+    }
+
+    boolean contains(int id) {
+        int word = id >>> 6;
+        return word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    boolean containsAll(SubjectSet required) {
+        return firstMissing(required) < 0;
+    }
+
+    /**
+     * @return the smallest id in {@code required} that is not in this set, or -1 if there is none
+     */
+    int firstMissing(SubjectSet required) {
+        long[] requiredWords = required.words;
+        for (int i = 0; i < requiredWords.length; i++) {
+            long have = i < words.length ? words[i] : 0L;
+            long missing = requiredWords[i] & ~have;
+            if (missing != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(missing);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the smallest id in this set that is {@code >= from}, or -1 if there is none
+     */
+    int nextSetBit(int from) {
+        int i = from >>> 6;
+        if (i >= words.length) {
+            return -1;
+        }
+        long word = words[i] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++i == words.length) {
+                return -1;
+            }
+            word = words[i];
+        }
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int id = nextSetBit(0); id >= 0; id = nextSetBit(id + 1)) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(id);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.group24h.enlistment;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One conflict-free combination of sections found by {@link ScheduleFinder}.
+ * Timetables with fewer idle half-hours between classes rank first, then
+ * those whose sections have more seats left.
+ */
+final class Timetable {
+    static final Comparator<Timetable> BEST_FIRST = Comparator
+            .comparingInt(Timetable::getIdleSlots)
+            .thenComparing(Comparator.comparingInt(Timetable::getAvailableSeats).reversed());
+
+    private final List<Section> sections;
+    private final long occupancy;
+    private final int idleSlots;
+    private final int availableSeats;
+
+    Timetable(List<Section> sections, long occupancy) {
+        this.sections = Collections.unmodifiableList(sections);
+        this.occupancy = occupancy;
+        this.idleSlots = idleSlots(occupancy);
+        this.availableSeats = sections.stream().mapToInt(Section::getAvailableSeats).sum();
+    }
+
+    List<Section> getSections() {
+        return sections;
+    }
+
+    long getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Free half-hours between the first and last class of each day pattern.
+     */
+    int getIdleSlots() {
+        return idleSlots;
+    }
+
+    int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    static int idleSlots(long occupancy) {
+        int idle = 0;
+        int dayMask = (1 << Period.SLOTS_PER_DAY) - 1;
+        for (int day = 0; day < Days.values().length; day++) {
+            int slots = (int) (occupancy >>> (day * Period.SLOTS_PER_DAY)) & dayMask;
+            if (slots != 0) {
+                int span = 32 - Integer.numberOfLeadingZeros(slots) - Integer.numberOfTrailingZeros(slots);
+                idle += span - Integer.bitCount(slots);
+            }
+        }
+        return idle;
+    }
+
+    @Override
+    public String toString() {
+        return sections.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.group24h.enlistment;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Rooms and schedules chosen by the {@link TimetableSolver} for a term's
+ * sections. Sections that could not be placed anywhere are listed
+ * separately.
+ */
+final class TimetablePlan {
+    private final Map<String, SectionDemand> demands;
+    private final Map<String, Placement> placements;
+    private final long cost;
+
+    TimetablePlan(Map<String, SectionDemand> demands, Map<String, Placement> placements, long cost) {
+        this.demands = Collections.unmodifiableMap(demands);
+        this.placements = Collections.unmodifiableMap(placements);
+        this.cost = cost;
+    }
+
+    static final class Placement {
+        private final Room room;
+        private final Schedule schedule;
+
+        Placement(Room room, Schedule schedule) {
+            this.room = room;
+            this.schedule = schedule;
+        }
+
+        Room getRoom() {
+            return room;
+        }
+
+        Schedule getSchedule() {
+            return schedule;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Placement placement = (Placement) o;
+            return room.equals(placement.room) && schedule.equals(placement.schedule);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(room, schedule);
+        }
+
+        @Override
+        public String toString() {
+            return room + " " + schedule;
+        }
+    }
+
+    /**
+     * Every section of the term by id, placed or not.
+     */
+    Map<String, SectionDemand> getDemands() {
+        return demands;
+    }
+
+    Placement getPlacement(String sectionId) {
+        return placements.get(sectionId);
+    }
+
+    Map<String, Placement> getPlacements() {
+        return placements;
+    }
+
+    List<SectionDemand> getUnplaced() {
+        List<SectionDemand> unplaced = new ArrayList<>();
+        demands.values().forEach(demand -> {
+            if (!placements.containsKey(demand.getSectionId())) {
+                unplaced.add(demand);
+            }
+        });
+        return unplaced;
+    }
+
+    /**
+     * What the solver minimized: unplaced sections, then sections of one
+     * subject meeting at the same time, sections moved by a re-solve and
+     * empty seats.
+     */
+    long getCost() {
+        return cost;
+    }
+
+    /**
+     * Creates the placed sections and books them in the ledger.
+     */
+    Map<String, Section> createSections(RoomLedger ledger) {
+        notNull(ledger, "ledger cannot be null");
+        Map<String, Section> sections = new LinkedHashMap<>();
+        placements.forEach((sectionId, placement) -> {
+            Section section = new Section(sectionId, placement.schedule, placement.room,
+                    demands.get(sectionId).getSubject());
+            ledger.book(section);
+            sections.put(sectionId, section);
+        });
+        return sections;
+    }
+}
@@ -0,0 +1,446 @@
+package com.group24h.enlistment;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+import static org.apache.commons.lang3.Validate.*;
+
+/**
+ * Assigns a room and a schedule on the {@link Days} x 30-minute grid to every
+ * section of a term.
+ *
+ * Hard constraints: a section only goes into a room that seats its expected
+ * students, and a room holds at most one section per slot. Everything else is
+ * a cost to minimize: sections that could not be placed, sections of the same
+ * subject meeting at the same time (students would have fewer real choices),
+ * sections a re-solve moved away from where they were, and empty seats.
+ *
+ * Each worker builds a solution greedily, hardest sections first (most
+ * students, longest meetings), putting each where it adds the least cost, and
+ * then improves it by local search: a placed section is taken out and put back
+ * at its best spot, and an unplaced one is forced into a random spot that fits,
+ * evicting whatever is there, which is kept only if the evicted sections find
+ * new places without raising the cost. Workers run on a {@link ForkJoinPool},
+ * one per core, from different random seeds, and the cheapest result wins.
+ * Every worker stops when it has gone a while without improving or when the
+ * time budget runs out.
+ */
+class TimetableSolver {
+    private static final long UNPLACED = 1_000_000;
+    private static final long SAME_SUBJECT_OVERLAP = 100;
+    private static final long MOVED = 50;
+    // local search steps without an improvement, per section, before a worker gives up
+    private static final int STALL_STEPS = 50;
+    private static final int DAYS = Days.values().length;
+    private static final int GRID = DAYS * Period.SLOTS_PER_DAY;
+
+    // largest room last
+    private final Room[] rooms;
+    private final Map<Room, Integer> roomIndex = new HashMap<>();
+    private final ForkJoinPool pool;
+
+    TimetableSolver(Collection<Room> rooms) {
+        this(rooms, ForkJoinPool.commonPool());
+    }
+
+    TimetableSolver(Collection<Room> rooms, ForkJoinPool pool) {
+        notNull(rooms, "rooms cannot be null");
+        noNullElements(rooms, "rooms cannot contain null");
+        notNull(pool, "pool cannot be null");
+        this.rooms = rooms.stream()
+                .distinct()
+                .sorted(Comparator.comparingInt(Room::getCapacity))
+                .toArray(Room[]::new);
+        for (int i = 0; i < this.rooms.length; i++) {
+            roomIndex.put(this.rooms[i], i);
+        }
+        this.pool = pool;
+    }
+
+    TimetablePlan solve(Collection<SectionDemand> demands, Duration budget) {
+        notNull(demands, "demands cannot be null");
+        noNullElements(demands, "demands cannot contain null");
+        isTrue(!demands.isEmpty(), "demands cannot be empty");
+        Map<String, SectionDemand> byId = new LinkedHashMap<>();
+        demands.forEach(demand -> isTrue(byId.put(demand.getSectionId(), demand) == null,
+                "duplicate section %s", demand.getSectionId()));
+        return solve(byId, Collections.emptyMap(), budget);
+    }
+
+    /**
+     * Solves again after a few sections changed. Sections that did not
+     * change start where the previous plan put them and are only moved if
+     * that pays for itself; changed sections replace the ones with the same
+     * id and are placed from scratch.
+     */
+    TimetablePlan resolve(TimetablePlan previous, Collection<SectionDemand> changed,
+                          Collection<String> removedSectionIds, Duration budget) {
+        notNull(previous, "previous cannot be null");
+        notNull(changed, "changed cannot be null");
+        noNullElements(changed, "changed cannot contain null");
+        notNull(removedSectionIds, "removedSectionIds cannot be null");
+        Map<String, SectionDemand> byId = new LinkedHashMap<>(previous.getDemands());
+        Map<String, TimetablePlan.Placement> kept = new HashMap<>(previous.getPlacements());
+        for (String sectionId : removedSectionIds) {
+            byId.remove(sectionId);
+            kept.remove(sectionId);
+        }
+        for (SectionDemand demand : changed) {
+            byId.put(demand.getSectionId(), demand);
+            kept.remove(demand.getSectionId());
+        }
+        return solve(byId, kept, budget);
+    }
+
+    private TimetablePlan solve(Map<String, SectionDemand> byId, Map<String, TimetablePlan.Placement> previous,
+                                Duration budget) {
+        notNull(budget, "budget cannot be null");
+        Problem problem = new Problem(byId.values().toArray(new SectionDemand[0]), previous);
+        long deadline = System.nanoTime() + budget.toNanos();
+        List<ForkJoinTask<Worker>> workers = new ArrayList<>();
+        for (int seed = 0; seed < pool.getParallelism(); seed++) {
+            long workerSeed = seed;
+            workers.add(pool.submit(() -> new Worker(problem, workerSeed).run(deadline)));
+        }
+        Worker best = workers.stream()
+                .map(ForkJoinTask::join)
+                .min(Comparator.comparingLong(worker -> worker.cost))
+                .orElseThrow();
+        return best.toPlan(byId);
+    }
+
+    /**
+     * Everything about the input the workers share read-only.
+     */
+    private final class Problem {
+        final SectionDemand[] demands;
+        final int[] subjects;
+        final int subjectCount;
+        final int[] firstRoom;
+        final int[] previousRoom;
+        final int[] previousDay;
+        final int[] previousStart;
+        // sections without a previous place; local search only picks these on a re-solve
+        final int[] focus;
+
+        Problem(SectionDemand[] demands, Map<String, TimetablePlan.Placement> previous) {
+            this.demands = demands;
+            int count = demands.length;
+            subjects = new int[count];
+            firstRoom = new int[count];
+            previousRoom = new int[count];
+            previousDay = new int[count];
+            previousStart = new int[count];
+            Map<Subject, Integer> subjectIndex = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                SectionDemand demand = demands[i];
+                subjects[i] = subjectIndex.computeIfAbsent(demand.getSubject(), subject -> subjectIndex.size());
+                firstRoom[i] = firstRoomFor(demand.getExpectedStudents());
+                previousRoom[i] = -1;
+                TimetablePlan.Placement placement = previous.get(demand.getSectionId());
+                Integer room = placement == null ? null : roomIndex.get(placement.getRoom());
+                Period period = placement == null ? null : placement.getSchedule().getPeriod();
+                if (room != null && room >= firstRoom[i] && period.getIndex() >= 0
+                        && Integer.bitCount(period.getSlotMask()) == demand.getSlots()) {
+                    previousRoom[i] = room;
+                    previousDay[i] = placement.getSchedule().getDays().ordinal();
+                    previousStart[i] = Integer.numberOfTrailingZeros(period.getSlotMask());
+                }
+            }
+            subjectCount = subjectIndex.size();
+            focus = previous.isEmpty() ? null
+                    : IntStream.range(0, count).filter(i -> previousRoom[i] < 0).toArray();
+        }
+    }
+
+    /**
+     * One solution under construction. Not thread-safe, each worker has its own.
+     */
+    private final class Worker {
+        final Problem problem;
+        final SectionDemand[] demands;
+        final Random random;
+        final int[] room;
+        final int[] day;
+        final int[] start;
+        final long[] roomOccupancy = new long[rooms.length];
+        // which section holds each slot of each room, -1 if free
+        final int[][] slotOwner = new int[rooms.length][GRID];
+        // how many sections of each subject meet in each slot
+        final int[][] subjectSlots;
+        long cost;
+        int unplaced;
+
+        Worker(Problem problem, long seed) {
+            this.problem = problem;
+            this.demands = problem.demands;
+            this.random = new Random(seed);
+            this.room = new int[demands.length];
+            this.day = new int[demands.length];
+            this.start = new int[demands.length];
+            this.subjectSlots = new int[problem.subjectCount][GRID];
+            Arrays.fill(room, -1);
+            for (int[] owners : slotOwner) {
+                Arrays.fill(owners, -1);
+            }
+            this.unplaced = demands.length;
+            this.cost = UNPLACED * demands.length;
+        }
+
+        Worker run(long deadline) {
+            for (int i = 0; i < demands.length; i++) {
+                int previousRoom = problem.previousRoom[i];
+                if (previousRoom >= 0
+                        && (roomOccupancy[previousRoom] & mask(i, problem.previousDay[i], problem.previousStart[i])) == 0) {
+                    place(i, previousRoom, problem.previousDay[i], problem.previousStart[i]);
+                }
+            }
+            greedy();
+            localSearch(deadline);
+            return this;
+        }
+
+        private void greedy() {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < demands.length; i++) {
+                if (room[i] < 0) {
+                    order.add(i);
+                }
+            }
+            // shuffle first so every worker breaks ties differently
+            Collections.shuffle(order, random);
+            order.sort(Comparator.comparingInt((Integer i) -> demands[i].getExpectedStudents())
+                    .thenComparingInt(i -> demands[i].getSlots())
+                    .reversed());
+            order.forEach(this::placeBest);
+        }
+
+        private void localSearch(long deadline) {
+            int[] focus = problem.focus;
+            if (focus != null && focus.length == 0) {
+                return;
+            }
+            long stallLimit = (long) STALL_STEPS * (focus == null ? demands.length : focus.length);
+            long stalled = 0;
+            long steps = 0;
+            while (stalled < stallLimit && cost > 0) {
+                if ((++steps & 255) == 0 && System.nanoTime() - deadline > 0) {
+                    return;
+                }
+                long before = cost;
+                int i = pick();
+                if (room[i] < 0) {
+                    kick(i);
+                } else {
+                    unplace(i);
+                    placeBest(i);
+                }
+                stalled = cost < before ? 0 : stalled + 1;
+            }
+        }
+
+        /**
+         * A random section, an unplaced one half of the time if there is any.
+         * On a re-solve only the changed sections are picked; the others
+         * still move when a kick evicts them.
+         */
+        private int pick() {
+            int[] focus = problem.focus;
+            if (focus != null) {
+                return focus[random.nextInt(focus.length)];
+            }
+            int i = random.nextInt(demands.length);
+            if (unplaced > 0 && random.nextBoolean()) {
+                while (room[i] >= 0) {
+                    i = i + 1 == demands.length ? 0 : i + 1;
+                }
+            }
+            return i;
+        }
+
+        /**
+         * Puts the section where it adds the least cost, choosing at random
+         * among equally good places. Rooms are visited smallest first, so
+         * the scan stops once a room wastes more seats than the best cost.
+         */
+        private boolean placeBest(int i) {
+            SectionDemand demand = demands[i];
+            int subject = problem.subjects[i];
+            long bestCost = Long.MAX_VALUE;
+            int bestRoom = -1;
+            int bestDay = 0;
+            int bestStart = 0;
+            int ties = 0;
+            for (int r = problem.firstRoom[i]; r < rooms.length; r++) {
+                long waste = rooms[r].getCapacity() - demand.getExpectedStudents();
+                if (waste > bestCost) {
+                    break;
+                }
+                long occupied = roomOccupancy[r];
+                for (int d = 0; d < DAYS; d++) {
+                    for (int s = 0; s + demand.getSlots() <= Period.SLOTS_PER_DAY; s++) {
+                        long mask = mask(i, d, s);
+                        if ((occupied & mask) != 0) {
+                            continue;
+                        }
+                        long candidate = waste + SAME_SUBJECT_OVERLAP * overlap(subject, mask) + moved(i, r, d, s);
+                        if (candidate < bestCost) {
+                            bestCost = candidate;
+                            bestRoom = r;
+                            bestDay = d;
+                            bestStart = s;
+                            ties = 1;
+                        } else if (candidate == bestCost && random.nextInt(++ties) == 0) {
+                            bestRoom = r;
+                            bestDay = d;
+                            bestStart = s;
+                        }
+                    }
+                }
+            }
+            if (bestRoom < 0) {
+                return false;
+            }
+            place(i, bestRoom, bestDay, bestStart);
+            return true;
+        }
+
+        /**
+         * Forces an unplaced section into a random spot of a room that fits
+         * it, evicting the sections there and re-placing them. Undone if the
+         * cost went up.
+         */
+        private void kick(int i) {
+            int first = problem.firstRoom[i];
+            if (first == rooms.length) {
+                return;
+            }
+            int r = first + random.nextInt(rooms.length - first);
+            int d = random.nextInt(DAYS);
+            int s = random.nextInt(Period.SLOTS_PER_DAY - demands[i].getSlots() + 1);
+            long mask = mask(i, d, s);
+
+            long before = cost;
+            List<int[]> evicted = new ArrayList<>();
+            for (long bits = roomOccupancy[r] & mask; bits != 0; bits &= bits - 1) {
+                int owner = slotOwner[r][Long.numberOfTrailingZeros(bits)];
+                if (owner >= 0) {
+                    evicted.add(new int[] {owner, room[owner], day[owner], start[owner]});
+                    unplace(owner);
+                }
+            }
+            place(i, r, d, s);
+            for (int[] victim : evicted) {
+                placeBest(victim[0]);
+            }
+            if (cost > before) {
+                unplace(i);
+                for (int[] victim : evicted) {
+                    if (room[victim[0]] >= 0) {
+                        unplace(victim[0]);
+                    }
+                }
+                for (int[] victim : evicted) {
+                    place(victim[0], victim[1], victim[2], victim[3]);
+                }
+            }
+        }
+
+        private void place(int i, int r, int d, int s) {
+            long mask = mask(i, d, s);
+            int subject = problem.subjects[i];
+            cost += placementCost(i, r, d, s, mask) - UNPLACED;
+            int[] slots = subjectSlots[subject];
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                slots[slot]++;
+                slotOwner[r][slot] = i;
+            }
+            roomOccupancy[r] |= mask;
+            room[i] = r;
+            day[i] = d;
+            start[i] = s;
+            unplaced--;
+        }
+
+        private void unplace(int i) {
+            int r = room[i];
+            long mask = mask(i, day[i], start[i]);
+            int[] slots = subjectSlots[problem.subjects[i]];
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                slots[slot]--;
+                slotOwner[r][slot] = -1;
+            }
+            roomOccupancy[r] &= ~mask;
+            cost -= placementCost(i, r, day[i], start[i], mask) - UNPLACED;
+            room[i] = -1;
+            unplaced++;
+        }
+
+        /**
+         * Cost of the section at the given place against the sections of its
+         * subject placed so far, not counting itself.
+         */
+        private long placementCost(int i, int r, int d, int s, long mask) {
+            return rooms[r].getCapacity() - demands[i].getExpectedStudents()
+                    + SAME_SUBJECT_OVERLAP * overlap(problem.subjects[i], mask)
+                    + moved(i, r, d, s);
+        }
+
+        private int overlap(int subject, long mask) {
+            int[] slots = subjectSlots[subject];
+            int overlap = 0;
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                overlap += slots[Long.numberOfTrailingZeros(bits)];
+            }
+            return overlap;
+        }
+
+        private long moved(int i, int r, int d, int s) {
+            int previousRoom = problem.previousRoom[i];
+            if (previousRoom < 0) {
+                return 0;
+            }
+            return previousRoom == r && problem.previousDay[i] == d && problem.previousStart[i] == s ? 0 : MOVED;
+        }
+
+        private long mask(int i, int d, int s) {
+            return (long) Period.slotMask(s, s + demands[i].getSlots()) << (d * Period.SLOTS_PER_DAY);
+        }
+
+        TimetablePlan toPlan(Map<String, SectionDemand> byId) {
+            Map<String, TimetablePlan.Placement> placements = new LinkedHashMap<>();
+            Days[] days = Days.values();
+            for (int i = 0; i < demands.length; i++) {
+                if (room[i] >= 0) {
+                    Schedule schedule = Schedule.of(days[day[i]],
+                            Period.toTime(start[i]), Period.toTime(start[i] + demands[i].getSlots()));
+                    placements.put(demands[i].getSectionId(), new TimetablePlan.Placement(rooms[room[i]], schedule));
+                }
+            }
+            return new TimetablePlan(byId, placements, cost);
+        }
+    }
+
+    /**
+     * Index of the smallest room that seats the given number of students,
+     * or the number of rooms if none does.
+     */
+    private int firstRoomFor(int students) {
+        int low = 0;
+        int high = rooms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rooms[mid].getCapacity() < students) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,12 @@
+package com.group24h.enlistment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Carries requests from a {@link PartitionCoordinator} to the
+ * {@link PartitionNode} with the given id. The future fails if the request
+ * could not be delivered or the node failed to handle it.
+ */
+interface Transport {
+    CompletableFuture<PartitionReply> send(int nodeId, PartitionRequest request);
+}
@@ -0,0 +1,48 @@
+package com.group24h.enlistment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A student waiting for a seat in a full section. Completes with the outcome
+ * of the student's enlistment once a seat was offered to them. Cancelling it
+ * withdraws the student from the waitlist, unless a seat is already being
+ * handed over.
+ */
+final class WaitlistEntry extends CompletableFuture<EnlistmentResult> {
+    private final Student student;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    WaitlistEntry(Student student) {
+        this.student = student;
+    }
+
+    Student getStudent() {
+        return student;
+    }
+
+    /**
+     * Hands a seat the section already reserved to the waiting student.
+     *
+     * @return true if the student took the seat
+     */
+    boolean offer(Section section) {
+        if (!claimed.compareAndSet(false, true)) {
+            return false;
+        }
+        EnlistmentResult result;
+        try {
+            result = student.acceptReservedSeat(section);
+        } catch (RuntimeException e) {
+            completeExceptionally(e);
+            return false;
+        }
+        complete(result);
+        return result.isSuccess();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return claimed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+    }
+}
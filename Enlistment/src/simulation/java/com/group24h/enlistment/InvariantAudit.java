@@ -0,0 +1,84 @@
+package com.group24h.enlistment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a catalog once the load has stopped: no section holds more
+ * students than seats, every class list matches its seat count and the
+ * students' schedules, and no student has overlapping sections, two
+ * sections of a subject or a section without its prerequisites.
+ */
+final class InvariantAudit {
+    private static final int MAX_REPORTED = 20;
+
+    private final List<String> violations = new ArrayList<>();
+    private int violationCount;
+    private long enlistments;
+
+    InvariantAudit(SimulatedCatalog catalog) {
+        long classListEntries = 0;
+        for (Section section : catalog.sectionsByPopularity) {
+            int enlisted = section.getNumberOfStudents();
+            int capacity = section.getRoom().getCapacity();
+            if (enlisted > capacity) {
+                violation("%s is overbooked: %d students in %d seats", section, enlisted, capacity);
+            }
+            if (section.getClassList().size() != enlisted) {
+                violation("%s counts %d students but lists %d", section, enlisted, section.getClassList().size());
+            }
+            classListEntries += section.getClassList().size();
+        }
+        for (Student student : catalog.students) {
+            long occupancy = 0;
+            SubjectSet subjects = new SubjectSet();
+            for (Section section : student.getSections()) {
+                long sectionOccupancy = section.getSchedule().getOccupancy();
+                if ((occupancy & sectionOccupancy) != 0) {
+                    violation("%s has a schedule conflict at %s", student, section);
+                }
+                occupancy |= sectionOccupancy;
+                Subject subject = section.getSubject();
+                if (subjects.contains(subject.getId())) {
+                    violation("%s is enlisted twice in %s", student, subject);
+                }
+                subjects.add(subject.getId());
+                if (!subject.hasPrerequisites(catalog.completedSubjects[student.getStudentNumber()])) {
+                    violation("%s lacks the prerequisites of %s", student, section);
+                }
+                if (!section.hasStudent(student.getStudentNumber())) {
+                    violation("%s is missing from the class list of %s", student, section);
+                }
+                enlistments++;
+            }
+        }
+        if (classListEntries != enlistments) {
+            violation("class lists hold %d students but schedules hold %d sections", classListEntries, enlistments);
+        }
+    }
+
+    private void violation(String format, Object... args) {
+        if (violationCount++ < MAX_REPORTED) {
+            violations.add(String.format(format, args));
+        }
+    }
+
+    boolean passed() {
+        return violationCount == 0;
+    }
+
+    int getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * The first few violations found.
+     */
+    List<String> getViolations() {
+        return violations;
+    }
+
+    long getEnlistments() {
+        return enlistments;
+    }
+}
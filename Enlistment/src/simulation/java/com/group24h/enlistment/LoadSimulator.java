@@ -0,0 +1,235 @@
+package com.group24h.enlistment;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Replays a registration day: many clients enlisting, cancelling and
+ * swapping at once against a {@link SimulatedCatalog}, with the sections
+ * drawn from a Zipf distribution so a few of them are fought over. Prints
+ * the throughput, latency percentiles and result mix of every kind of
+ * operation, then audits the catalog and exits with status 1 if any
+ * invariant was broken.
+ *
+ * Options, all optional:
+ * <pre>
+ *   --subjects N        subjects in the catalog (400)
+ *   --students N        students (20000)
+ *   --operations N      operations to time (2000000)
+ *   --warmup N          operations run before timing starts (200000)
+ *   --threads N         concurrent clients (2 per processor)
+ *   --virtual           one virtual thread per client, needs Java 21
+ *   --zipf S            popularity skew, 0 for uniform (1.0)
+ *   --cancel PERCENT    share of operations that cancel (25)
+ *   --swap PERCENT      share of operations that swap (15)
+ *   --seed N            catalog and operation seed (42)
+ * </pre>
+ */
+public final class LoadSimulator {
+    private static final int ENLIST = 0;
+    private static final int CANCEL = 1;
+    private static final int SWAP = 2;
+    private static final String[] OPERATION_NAMES = {"enlist", "cancel", "swap"};
+    private static final int RESULTS = EnlistmentResult.values().length;
+    // cancels and swaps of a section the same student gave up on another thread a moment ago
+    private static final int STALE = RESULTS;
+
+    private final int subjects;
+    private final int students;
+    private final long operations;
+    private final long warmup;
+    private final int threads;
+    private final boolean virtual;
+    private final double zipf;
+    private final int cancelPercent;
+    private final int swapPercent;
+    private final long seed;
+
+    private SimulatedCatalog catalog;
+    private ZipfDistribution popularity;
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATION_NAMES.length];
+    private final long[][] counts = new long[OPERATION_NAMES.length][RESULTS + 1];
+
+    private LoadSimulator(Map<String, String> options) {
+        subjects = Integer.parseInt(options.getOrDefault("subjects", "400"));
+        students = Integer.parseInt(options.getOrDefault("students", "20000"));
+        operations = Long.parseLong(options.getOrDefault("operations", "2000000"));
+        warmup = Long.parseLong(options.getOrDefault("warmup", "200000"));
+        threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(2 * Runtime.getRuntime().availableProcessors())));
+        virtual = options.containsKey("virtual");
+        zipf = Double.parseDouble(options.getOrDefault("zipf", "1.0"));
+        cancelPercent = Integer.parseInt(options.getOrDefault("cancel", "25"));
+        swapPercent = Integer.parseInt(options.getOrDefault("swap", "15"));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        isTrue(subjects >= SimulatedCatalog.LEVELS, "need at least %d subjects, was: %d", SimulatedCatalog.LEVELS, subjects);
+        isTrue(students > 0, "students must be positive, was: %d", students);
+        isTrue(threads > 0, "threads must be positive, was: %d", threads);
+        isTrue(cancelPercent >= 0 && swapPercent >= 0 && cancelPercent + swapPercent <= 100,
+                "cancel and swap percentages must add up to at most 100, were: %d and %d", cancelPercent, swapPercent);
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSimulator simulator = new LoadSimulator(parse(args));
+        boolean passed = simulator.run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            isTrue(args[i].startsWith("--"), "expected an option, was: %s", args[i]);
+            String name = args[i].substring(2);
+            if (name.equals("virtual")) {
+                options.put(name, "true");
+            } else {
+                isTrue(i + 1 < args.length, "option --%s needs a value", name);
+                options.put(name, args[++i]);
+            }
+        }
+        return options;
+    }
+
+    private boolean run() throws Exception {
+        long buildStart = System.nanoTime();
+        Random random = new Random(seed);
+        catalog = new SimulatedCatalog(subjects, students, random);
+        popularity = new ZipfDistribution(catalog.sectionsByPopularity.length, zipf);
+        System.out.printf("catalog      %,d subjects, %,d sections, %,d seats, %,d students in %.1f s%n",
+                subjects, catalog.sectionsByPopularity.length, catalog.getSeats(), students,
+                (System.nanoTime() - buildStart) / 1e9);
+        System.out.printf("load         %,d operations on %,d %s threads, zipf %.2f, %d%% cancel, %d%% swap%n",
+                operations, threads, virtual ? "virtual" : "platform", zipf, cancelPercent, swapPercent);
+
+        runPhase(warmup, false);
+        long start = System.nanoTime();
+        runPhase(operations, true);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("throughput   %,.0f operations/s over %.2f s%n", operations / (elapsed / 1e9), elapsed / 1e9);
+        System.out.printf("%-12s %10s %10s %10s %10s %10s%n", "latency us", "count", "p50", "p99", "p999", "max");
+        for (int op = 0; op < OPERATION_NAMES.length; op++) {
+            LatencyHistogram histogram = latencies[op];
+            System.out.printf("  %-10s %,10d %10.1f %10.1f %10.1f %10.1f%n", OPERATION_NAMES[op], histogram.getCount(),
+                    histogram.valueAtPercentile(50) / 1e3, histogram.valueAtPercentile(99) / 1e3,
+                    histogram.valueAtPercentile(99.9) / 1e3, histogram.getMax() / 1e3);
+        }
+        printResults();
+
+        InvariantAudit audit = new InvariantAudit(catalog);
+        System.out.printf("audit        %,d enlistments in %,d sections: %s%n", audit.getEnlistments(),
+                catalog.sectionsByPopularity.length,
+                audit.passed() ? "no violations" : audit.getViolationCount() + " violations");
+        audit.getViolations().forEach(violation -> System.out.println("  " + violation));
+        return audit.passed();
+    }
+
+    private void printResults() {
+        System.out.printf("%-22s", "results");
+        long[] totals = new long[OPERATION_NAMES.length];
+        for (int op = 0; op < OPERATION_NAMES.length; op++) {
+            System.out.printf("%10s", OPERATION_NAMES[op]);
+            totals[op] = Arrays.stream(counts[op]).sum();
+        }
+        System.out.println();
+        for (int result = 0; result <= RESULTS; result++) {
+            String name = result == STALE ? "stale" : EnlistmentResult.values()[result].name().toLowerCase();
+            System.out.printf("  %-20s", name);
+            for (int op = 0; op < OPERATION_NAMES.length; op++) {
+                System.out.printf("%9.1f%%", totals[op] == 0 ? 0.0 : 100.0 * counts[op][result] / totals[op]);
+            }
+            System.out.println();
+        }
+    }
+
+    private void runPhase(long phaseOperations, boolean measured) throws Exception {
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<long[][]>> workers = new ArrayList<>();
+            for (int worker = 0; worker < threads; worker++) {
+                long share = phaseOperations / threads + (worker < phaseOperations % threads ? 1 : 0);
+                Random random = new Random(seed * 31 + worker + (measured ? threads : 0));
+                workers.add(executor.submit(() -> work(share, random, measured)));
+            }
+            for (Future<long[][]> worker : workers) {
+                long[][] workerCounts = worker.get();
+                if (measured) {
+                    for (int op = 0; op < counts.length; op++) {
+                        for (int result = 0; result < counts[op].length; result++) {
+                            counts[op][result] += workerCounts[op][result];
+                        }
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private long[][] work(long workOperations, Random random, boolean measured) {
+        long[][] workerCounts = new long[OPERATION_NAMES.length][RESULTS + 1];
+        for (long i = 0; i < workOperations; i++) {
+            Student student = catalog.students[random.nextInt(catalog.students.length)];
+            StudentSchedule schedule = student.getSections();
+            int roll = random.nextInt(100);
+            int op = schedule.isEmpty() || roll >= cancelPercent + swapPercent ? ENLIST
+                    : roll < cancelPercent ? CANCEL : SWAP;
+            Section section;
+            Section newSection = null;
+            if (op == ENLIST) {
+                section = catalog.sectionsByPopularity[popularity.sample(random)];
+            } else {
+                section = schedule.get(random.nextInt(schedule.size()));
+                Section[] alternatives = catalog.sectionsBySubject.get(section.getSubject());
+                if (op == SWAP && alternatives.length > 1) {
+                    // any other section of the same subject
+                    int index = random.nextInt(alternatives.length - 1);
+                    newSection = alternatives[index] == section ? alternatives[alternatives.length - 1] : alternatives[index];
+                } else if (op == SWAP) {
+                    op = CANCEL;
+                }
+            }
+            long start = System.nanoTime();
+            int outcome;
+            try {
+                outcome = perform(op, student, section, newSection);
+            } catch (IllegalArgumentException stale) {
+                outcome = STALE;
+            }
+            if (measured) {
+                latencies[op].record(System.nanoTime() - start);
+                workerCounts[op][outcome]++;
+            }
+        }
+        return workerCounts;
+    }
+
+    private static int perform(int op, Student student, Section section, Section newSection) {
+        switch (op) {
+            case CANCEL:
+                student.cancelEnlistment(section);
+                return EnlistmentResult.ENLISTED.ordinal();
+            case SWAP:
+                return student.trySwap(section, newSection).ordinal();
+            default:
+                return student.tryEnlist(section).ordinal();
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        if (!virtual) {
+            return Executors.newFixedThreadPool(threads);
+        }
+        try {
+            // looked up reflectively so the simulation still builds on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("virtual threads need Java 21 or later, running on " + Runtime.version(), e);
+        }
+    }
+}
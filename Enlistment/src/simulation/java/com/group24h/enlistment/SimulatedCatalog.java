@@ -0,0 +1,85 @@
+package com.group24h.enlistment;
+
+import java.util.*;
+
+/**
+ * Synthetic term: subjects in four year levels, each above the first
+ * requiring a subject of the level below; one to six sections per subject
+ * at random times of the week; and students in random years who have
+ * completed most of the subjects below their year.
+ *
+ * Sections are ranked by popularity in random order, so the rank drawn
+ * from a Zipf distribution says nothing about the subject or the time.
+ */
+final class SimulatedCatalog {
+    static final int LEVELS = 4;
+
+    final SubjectCatalog subjectCatalog = new SubjectCatalog();
+    final List<Subject> subjects = new ArrayList<>();
+    final Section[] sectionsByPopularity;
+    final Map<Subject, Section[]> sectionsBySubject = new HashMap<>();
+    final Student[] students;
+    final SubjectSet[] completedSubjects;
+
+    SimulatedCatalog(int subjectCount, int studentCount, Random random) {
+        List<List<Subject>> levels = new ArrayList<>();
+        for (int level = 0; level < LEVELS; level++) {
+            levels.add(new ArrayList<>());
+        }
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < subjectCount; i++) {
+            int level = i * LEVELS / subjectCount;
+            List<Subject> below = level == 0 ? Collections.emptyList() : levels.get(level - 1);
+            List<Subject> prerequisites = below.isEmpty()
+                    ? Collections.emptyList()
+                    : List.of(below.get(random.nextInt(below.size())));
+            Subject subject = new Subject(subjectCatalog, "SUBJ" + i, prerequisites);
+            levels.get(level).add(subject);
+            subjects.add(subject);
+
+            Section[] ofSubject = new Section[1 + random.nextInt(6)];
+            for (int s = 0; s < ofSubject.length; s++) {
+                String sectionId = "S" + i + "N" + s;
+                ofSubject[s] = new Section(sectionId, randomSchedule(random),
+                        new Room("R" + sectionId, 20 + random.nextInt(26)), subject);
+                sections.add(ofSubject[s]);
+            }
+            sectionsBySubject.put(subject, ofSubject);
+        }
+        Collections.shuffle(sections, random);
+        sectionsByPopularity = sections.toArray(new Section[0]);
+
+        students = new Student[studentCount];
+        completedSubjects = new SubjectSet[studentCount];
+        for (int i = 0; i < studentCount; i++) {
+            int year = random.nextInt(LEVELS);
+            List<Subject> completed = new ArrayList<>();
+            for (int level = 0; level < year; level++) {
+                for (Subject subject : levels.get(level)) {
+                    if (random.nextInt(10) < 8) {
+                        completed.add(subject);
+                    }
+                }
+            }
+            students[i] = new Student(subjectCatalog, i, Collections.emptyList(), completed);
+            SubjectSet completedIds = new SubjectSet();
+            completed.forEach(subject -> completedIds.add(subject.getId()));
+            completedSubjects[i] = completedIds;
+        }
+    }
+
+    int getSeats() {
+        int seats = 0;
+        for (Section section : sectionsByPopularity) {
+            seats += section.getRoom().getCapacity();
+        }
+        return seats;
+    }
+
+    private static Schedule randomSchedule(Random random) {
+        Days days = Days.values()[random.nextInt(Days.values().length)];
+        int length = 2 + random.nextInt(2);
+        int startSlot = random.nextInt(Period.SLOTS_PER_DAY - length + 1);
+        return Schedule.of(days, Period.toTime(startSlot), Period.toTime(startSlot + length));
+    }
+}
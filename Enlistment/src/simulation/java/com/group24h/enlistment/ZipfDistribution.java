@@ -0,0 +1,34 @@
+package com.group24h.enlistment;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Ranks 0 to size - 1 where rank k is drawn with probability proportional
+ * to 1 / (k + 1)^exponent, so a few popular ranks take most of the draws.
+ * Sampling is a binary search over the precomputed cumulative weights.
+ */
+final class ZipfDistribution {
+    private final double[] cumulative;
+
+    ZipfDistribution(int size, double exponent) {
+        isTrue(size > 0, "size must be positive, was: %d", size);
+        isTrue(exponent >= 0, "exponent cannot be negative, was: %s", exponent);
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    int sample(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(rank >= 0 ? rank : -rank - 1, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AvailabilityIndexTest {
+    Subject csarch = new Subject("CSARCH", Collections.EMPTY_SET);
+    Subject stsweng = new Subject("STSWENG", Collections.EMPTY_SET);
+
+    @Test
+    void open_sections_follow_enlistment_and_cancellation() {
+        // Given three sections of a subject with different capacities
+        Section small = new Section("A1", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 1), csarch);
+        Section medium = new Section("A2", Schedule.of(Days.TF, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G302", 2), csarch);
+        Section large = new Section("A3", Schedule.of(Days.WS, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G303", 3), csarch);
+        Section other = new Section("S1", Schedule.of(Days.WS, LocalTime.of(13,0), LocalTime.of(14,30)), new Room("G304", 30), stsweng);
+        AvailabilityIndex index = new AvailabilityIndex(List.of(small, medium, large, other));
+        Student first = new Student(1);
+        Student second = new Student(2);
+        Student third = new Student(3);
+
+        // When the small section fills up and the large one loses two seats
+        first.enlist(small);
+        second.enlist(large);
+        third.enlist(large);
+        List<Section> afterEnlisting = index.openSections(csarch, 5);
+        int remainingInSmall = index.remainingSeats(small);
+        // and one student cancels again
+        first.cancelEnlistment(small);
+        List<Section> afterCancelling = index.openSections(csarch, 5);
+
+        // Then the full section should drop out and come back, the others ordered by free seats
+        assertAll(
+                () -> assertEquals(List.of(medium, large), afterEnlisting),
+                () -> assertEquals(1, index.remainingSeats(large)),
+                () -> assertEquals(0, remainingInSmall),
+                () -> assertEquals(List.of(medium, small, large), afterCancelling),
+                () -> assertEquals(List.of(medium), index.openSections(csarch, 1)),
+                () -> assertEquals(List.of(other), index.openSections(stsweng, 5))
+        );
+    }
+
+    @Test
+    void open_sections_filtered_by_days_and_period() {
+        // Given sections of a subject in the morning and afternoon of two day patterns
+        Section mthMorning = new Section("A1", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 30), csarch);
+        Section mthAfternoon = new Section("A2", Schedule.of(Days.MTH, LocalTime.of(13,0), LocalTime.of(14,30)), new Room("G302", 30), csarch);
+        Section tfMorning = new Section("A3", Schedule.of(Days.TF, LocalTime.of(9,0), LocalTime.of(10,30)), new Room("G303", 30), csarch);
+        AvailabilityIndex index = new AvailabilityIndex(List.of(mthMorning, mthAfternoon, tfMorning));
+        Period morning = Period.of(LocalTime.of(8,30), LocalTime.of(12,0));
+
+        // When the index is queried with filters
+        // Then only sections on those days and entirely within the period should be returned
+        assertAll(
+                () -> assertEquals(List.of(mthMorning, mthAfternoon), index.openSections(csarch, Days.MTH, null, 5)),
+                () -> assertEquals(List.of(mthMorning, tfMorning), index.openSections(csarch, null, morning, 5)),
+                () -> assertEquals(List.of(tfMorning), index.openSections(csarch, Days.TF, morning, 5)),
+                () -> assertTrue(index.openSections(csarch, Days.WS, null, 5).isEmpty())
+        );
+    }
+
+    @Test
+    void removed_section_is_no_longer_listed() {
+        // Given an indexed section
+        Section section = new Section("A1", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 30), csarch);
+        AvailabilityIndex index = new AvailabilityIndex(List.of(section));
+
+        // When it is removed from the index and a student enlists in it
+        index.remove(section);
+        new Student(1).enlist(section);
+
+        // Then it should not be listed
+        assertTrue(index.openSections(csarch, 5).isEmpty());
+    }
+}
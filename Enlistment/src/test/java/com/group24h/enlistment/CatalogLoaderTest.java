@@ -0,0 +1,101 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogLoaderTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void load_catalog_in_small_chunks() throws IOException {
+        // Given catalog files with subjects listed before their prerequisites and many sections
+        StringBuilder sections = new StringBuilder("# sectionId,subjectId,roomName,days,start,end\n");
+        for (int i = 0; i < 200; i++) {
+            sections.append("S").append(i).append(",CSARCH,R").append(i).append(",TF,9:00,10:30\r\n");
+        }
+        StringBuilder rooms = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            rooms.append("R").append(i).append(",").append(20 + i).append("\n");
+        }
+        Files.writeString(dir.resolve(CatalogLoader.ROOMS), rooms);
+        Files.writeString(dir.resolve(CatalogLoader.SUBJECTS), "CSARCH,CCPROG2\nCCPROG2, CCPROG1\n\nCCPROG1,\n");
+        Files.writeString(dir.resolve(CatalogLoader.SECTIONS), sections);
+        Files.writeString(dir.resolve(CatalogLoader.STUDENTS), "1,CCPROG1;CCPROG2\n2,CCPROG1\n");
+
+        // When the catalog is loaded with chunks much smaller than the files
+        RoomLedger ledger = new RoomLedger();
+        CatalogLoader loader = new CatalogLoader(ledger, 64).load(dir);
+
+        // Then every record should be loaded and the references resolved
+        Section section = loader.getSections().get("S7");
+        assertAll(
+                () -> assertEquals(200, loader.getRooms().size()),
+                () -> assertEquals(3, loader.getSubjects().size()),
+                () -> assertEquals(200, loader.getSections().size()),
+                () -> assertEquals(2, loader.getStudents().size()),
+                () -> assertEquals(Schedule.of(Days.TF, LocalTime.of(9,0), LocalTime.of(10,30)), section.getSchedule()),
+                () -> assertEquals(27, section.getRoom().getCapacity()),
+                () -> assertFalse(ledger.isFree(section.getRoom(), section.getSchedule())),
+                () -> assertEquals(EnlistmentResult.ENLISTED, loader.getStudents().get(1).tryEnlist(section)),
+                () -> assertEquals(EnlistmentResult.MISSING_PREREQUISITE, loader.getStudents().get(2).tryEnlist(section))
+        );
+
+        // And the subjects should be in a catalog of the term's own, which students of other terms cannot use
+        assertAll(
+                () -> assertEquals(3, loader.getSubjectCatalog().size()),
+                () -> assertEquals(List.of(loader.getSubjects().get("CSARCH")), loader.getStudents().get(1).getEligibleSubjects()),
+                () -> assertThrows(IllegalArgumentException.class, () -> new Student(3).tryEnlist(section))
+        );
+    }
+
+    @Test
+    void load_sections_reports_every_invalid_line() throws IOException {
+        // Given valid rooms and subjects and sections with several kinds of mistakes
+        Files.writeString(dir.resolve(CatalogLoader.ROOMS), "G303,30\n");
+        Files.writeString(dir.resolve(CatalogLoader.SUBJECTS), "STSWENG,\n");
+        Files.writeString(dir.resolve(CatalogLoader.SECTIONS),
+                "A,STSWENG,G303,MTH,8:30,10:00\n" +
+                "B,STSWENG,G999,MTH,10:00,11:30\n" +
+                "C,NOPE,G303,TF,8:30,10:00\n" +
+                "D,STSWENG,G303,MTH,9:00,10:30\n" +
+                "E,STSWENG,G303,WS,8:45,10:00\n" +
+                "F,STSWENG,G303\n" +
+                "A,STSWENG,G303,TF,8:30,10:00\n");
+        RoomLedger ledger = new RoomLedger();
+        CatalogLoader loader = new CatalogLoader(ledger);
+        loader.loadRooms(dir.resolve(CatalogLoader.ROOMS));
+        loader.loadSubjects(dir.resolve(CatalogLoader.SUBJECTS));
+
+        // When the sections are loaded
+        CatalogLoadException exception = assertThrows(CatalogLoadException.class,
+                () -> loader.loadSections(dir.resolve(CatalogLoader.SECTIONS)));
+
+        // Then each bad line should be reported with its line number, in order
+        List<String> errors = exception.getErrors();
+        assertAll(
+                () -> assertEquals(6, errors.size()),
+                () -> assertTrue(errors.get(0).startsWith("sections.csv:2: unknown room G999")),
+                () -> assertTrue(errors.get(1).startsWith("sections.csv:3: unknown subject NOPE")),
+                () -> assertTrue(errors.get(2).startsWith("sections.csv:4: room G303 is already booked")),
+                () -> assertTrue(errors.get(3).startsWith("sections.csv:5: Time not increment of 30")),
+                () -> assertTrue(errors.get(4).startsWith("sections.csv:6: expected 6 fields")),
+                () -> assertTrue(errors.get(5).startsWith("sections.csv:7: duplicate section A"))
+        );
+
+        // And only the valid section should be loaded and keep its room booking
+        assertAll(
+                () -> assertEquals(Set.of("A"), loader.getSections().keySet()),
+                () -> assertTrue(ledger.isFree(new Room("G303", 30), Schedule.of(Days.TF, LocalTime.of(8, 30), LocalTime.of(10, 0)))),
+                () -> assertFalse(ledger.isFree(new Room("G303", 30), Schedule.of(Days.MTH, LocalTime.of(8, 30), LocalTime.of(10, 0))))
+        );
+    }
+}
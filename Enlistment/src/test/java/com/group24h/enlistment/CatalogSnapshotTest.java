@@ -0,0 +1,95 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void scan_and_restore_snapshot() throws Exception {
+        // Given a prerequisite chain, sections with some seats taken and students with completed subjects
+        Subject intro = new Subject("CCPROG1", Collections.EMPTY_SET);
+        Subject next = new Subject("CCPROG2", List.of(intro));
+        Room room = new Room("GK301", 3);
+        Section introSection = new Section("S1", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), room, intro, 1);
+        Section nextSection = new Section("S2", Schedule.of(Days.TF, LocalTime.of(13,0), LocalTime.of(14,30)), room, next);
+        Student freshman = new Student(1);
+        freshman.enlist(introSection);
+        Student sophomore = new Student(2, Collections.emptyList(), List.of(intro));
+        sophomore.enlist(nextSection);
+        sophomore.enlist(introSection);
+
+        // When the catalog is written to disk and mapped back
+        CatalogSnapshot.write(directory.resolve("catalog.bin"), List.of(next, intro),
+                List.of(introSection, nextSection), List.of(freshman, sophomore));
+        CatalogSnapshot snapshot = CatalogSnapshot.map(directory.resolve("catalog.bin"));
+
+        // Then the views should read every field in place
+        CatalogSnapshot.SectionView section = snapshot.sectionView().at(0);
+        CatalogSnapshot.SubjectView subject = snapshot.subjectView().at(0);
+        CatalogSnapshot.StudentView student = snapshot.studentView().at(1);
+        assertAll(
+                () -> assertEquals(2, snapshot.getSectionCount()),
+                () -> assertEquals("S1", section.getSectionId()),
+                () -> assertEquals(1, section.getSubject()),
+                () -> assertEquals("GK301", section.getRoomName()),
+                () -> assertEquals(3, section.getEnlisted()),
+                () -> assertEquals(0, section.getAvailableSeats()),
+                () -> assertEquals(Days.MTH, section.getDays()),
+                () -> assertEquals(introSection.getSchedule().getOccupancy(), section.getOccupancy()),
+                () -> assertEquals("CCPROG2", subject.getSubjectId()),
+                () -> assertEquals(1, subject.getPrerequisite(0)),
+                () -> assertEquals(2, student.getStudentNumber()),
+                () -> assertEquals(2, student.getSectionCount()),
+                () -> assertEquals(1, student.getCompletedSubject(0))
+        );
+
+        // And restoring should give back sections with the same seats taken and students with the same schedules
+        SubjectCatalog catalog = new SubjectCatalog();
+        List<Subject> subjects = snapshot.restoreSubjects(catalog);
+        List<Section> sections = snapshot.restoreSections(subjects);
+        List<Student> students = snapshot.restoreStudents(catalog, subjects, sections);
+        Section restoredIntro = sections.get(0);
+        Section restoredNext = sections.get(1);
+        assertAll(
+                () -> assertEquals(List.of("CCPROG2", "CCPROG1"), List.of(subjects.get(0).toString(), subjects.get(1).toString())),
+                () -> assertEquals(2, catalog.size()),
+                () -> assertTrue(subjects.get(0).getPrerequisiteIds().contains(subjects.get(1).getId())),
+                () -> assertEquals(3, restoredIntro.getNumberOfStudents()),
+                () -> assertEquals(1, restoredNext.getNumberOfStudents()),
+                () -> assertTrue(restoredIntro.hasStudent(1)),
+                () -> assertTrue(restoredIntro.hasStudent(2)),
+                () -> assertSame(restoredIntro.getRoom(), restoredNext.getRoom()),
+                () -> assertEquals(introSection.getSchedule(), restoredIntro.getSchedule()),
+                () -> assertEquals(List.of(restoredNext, restoredIntro), new ArrayList<>(students.get(1).getSections())),
+                () -> assertTrue(students.get(1).isEligibleFor(subjects.get(0))),
+                () -> assertFalse(students.get(0).isEligibleFor(subjects.get(0)))
+        );
+    }
+
+    @Test
+    void reject_what_is_not_a_snapshot() {
+        // Given a snapshot missing a subject its section needs, and bytes that are not a snapshot
+        Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+        Section section = new Section("S3", Schedule.of(Days.WS, LocalTime.of(8,30), LocalTime.of(10,0)),
+                new Room("GK302", 10), subject);
+        ByteBuffer garbage = ByteBuffer.allocate(64);
+
+        // When / Then
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> CatalogSnapshot.encode(List.of(), List.of(section), List.of())),
+                () -> assertThrows(IllegalArgumentException.class, () -> CatalogSnapshot.wrap(garbage)),
+                () -> assertThrows(IllegalArgumentException.class, () -> CatalogSnapshot.wrap(ByteBuffer.allocate(8)))
+        );
+    }
+}
@@ -0,0 +1,132 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnlistmentEngineTest {
+    LocalTime start = LocalTime.of(8,30);
+    LocalTime end = LocalTime.of(9,30);
+
+    @Test
+    void enlist_many_students_in_hot_section() throws Exception {
+        // Given an engine, a section with capacity 50 and 500 students
+        final int CAPACITY = 50;
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", CAPACITY), new Subject("STSWENG", Collections.EMPTY_SET));
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        try (EnlistmentEngine engine = new EnlistmentEngine()) {
+            // When all students enlist through the engine
+            for (int i = 0; i < 500; i++) {
+                results.add(engine.enlist(new Student(i), section));
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).exceptionally(e -> null).join();
+        }
+
+        // Then exactly as many enlistments as seats should succeed and the rest fail on capacity
+        long succeeded = results.stream().filter(result -> !result.isCompletedExceptionally()).count();
+        assertAll(
+                () -> assertEquals(CAPACITY, succeeded),
+                () -> assertEquals(CAPACITY, section.getNumberOfStudents())
+        );
+        results.stream().filter(CompletableFuture::isCompletedExceptionally).forEach(result -> {
+            CompletionException e = assertThrows(CompletionException.class, result::join);
+            assertTrue(e.getCause() instanceof CapacityException);
+        });
+    }
+
+    @Test
+    void commands_for_same_section_run_in_order() throws Exception {
+        // Given an engine, a section and a student
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 1), new Subject("STSWENG", Collections.EMPTY_SET));
+        Student student = new Student(1);
+        try (EnlistmentEngine engine = new EnlistmentEngine()) {
+            // When the student enlists, cancels and enlists again without waiting in between
+            CompletableFuture<Void> first = engine.enlist(student, section);
+            CompletableFuture<Void> cancel = engine.cancel(student, section);
+            CompletableFuture<Void> second = engine.enlist(student, section);
+
+            // Then every command should succeed in submission order
+            CompletableFuture.allOf(first, cancel, second).join();
+        }
+        assertAll(
+                () -> assertEquals(List.of(section), new ArrayList<>(student.getSections())),
+                () -> assertEquals(1, section.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void admission_sheds_commands_over_the_section_bound() throws Exception {
+        // Given an engine whose only thread is busy, allowing 5 queued commands per section
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 50), new Subject("STSWENG", Collections.EMPTY_SET));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch busy = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AdmissionControl admission = new AdmissionControl(100, 5, 1000, 10);
+        List<CompletableFuture<EnlistmentResult>> results = new ArrayList<>();
+        try (EnlistmentEngine engine = new EnlistmentEngine(executor, null, admission)) {
+            // When 20 students enlist at once
+            for (int i = 0; i < 20; i++) {
+                results.add(engine.tryEnlist(new Student(i), section));
+            }
+            long shedBeforeRunning = results.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+            busy.countDown();
+            CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).exceptionally(e -> null).join();
+
+            // Then the commands over the bound should fail at once with a hint, and the others enlist
+            assertAll(
+                    () -> assertEquals(15, shedBeforeRunning),
+                    () -> assertEquals(15, admission.getRejected(AdmissionRejectedException.Reason.SECTION_BUSY)),
+                    () -> assertEquals(5, section.getNumberOfStudents()),
+                    () -> assertEquals(0, admission.getQueued())
+            );
+            results.stream().filter(CompletableFuture::isCompletedExceptionally).forEach(result -> {
+                CompletionException e = assertThrows(CompletionException.class, result::join);
+                AdmissionRejectedException rejected = (AdmissionRejectedException) e.getCause();
+                assertFalse(rejected.getRetryAfter().isNegative() || rejected.getRetryAfter().isZero());
+            });
+        }
+    }
+
+    @Test
+    void admission_rate_limits_students_and_turns_away_full_sections() throws Exception {
+        // Given an engine allowing each student a burst of 2 commands, then one a second, and a full section
+        AdmissionControl admission = new AdmissionControl(100, 100, 1, 2);
+        Section full = new Section("F", new Schedule(Days.WS, new Period(start,end)), new Room("Z", 1), new Subject("CSALGCM", Collections.EMPTY_SET));
+        new Student(99).enlist(full);
+        Student student = new Student(1);
+        try (EnlistmentEngine engine = new EnlistmentEngine(Executors.newSingleThreadExecutor(), null, admission)) {
+            // When the student sends three enlistments at once and another student tries the full section
+            List<CompletableFuture<EnlistmentResult>> results = new ArrayList<>();
+            for (Days days : List.of(Days.MTH, Days.TF, Days.WS)) {
+                Section section = new Section("S" + days, new Schedule(days, new Period(start,end)), new Room("R" + days, 10), new Subject("SUBJ" + days, Collections.EMPTY_SET));
+                results.add(engine.tryEnlist(student, section));
+            }
+            CompletableFuture<EnlistmentResult> fullResult = engine.tryEnlist(new Student(2), full);
+
+            // Then the third should be rate limited for up to a second and the full section rejected without queuing
+            CompletionException e = assertThrows(CompletionException.class, () -> results.get(2).join());
+            AdmissionRejectedException rejected = (AdmissionRejectedException) e.getCause();
+            assertAll(
+                    () -> assertEquals(EnlistmentResult.ENLISTED, results.get(0).join()),
+                    () -> assertEquals(EnlistmentResult.ENLISTED, results.get(1).join()),
+                    () -> assertEquals(AdmissionRejectedException.Reason.RATE_LIMITED, rejected.getReason()),
+                    () -> assertTrue(rejected.getRetryAfter().toMillis() <= 1000),
+                    () -> assertEquals(EnlistmentResult.SECTION_FULL, fullResult.getNow(null))
+            );
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnlistmentJournalTest {
+    private static final int STUDENTS = 300;
+    private static final int SECTIONS = 9;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Builds the same catalog on every call, as a restarted process would.
+     */
+    private static Map<String, Section> sections() {
+        Map<String, Section> sections = new LinkedHashMap<>();
+        for (int i = 0; i < SECTIONS; i++) {
+            Schedule schedule = Schedule.of(Days.values()[i % 3], LocalTime.of(8 + i / 3, 30), LocalTime.of(9 + i / 3, 30));
+            sections.put("S" + i, new Section("S" + i, schedule, new Room("R" + i, STUDENTS), new Subject("SUBJ" + i, Collections.EMPTY_SET)));
+        }
+        return sections;
+    }
+
+    private static Map<Integer, Student> students() {
+        Map<Integer, Student> students = new LinkedHashMap<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.put(i, new Student(i));
+        }
+        return students;
+    }
+
+    @Test
+    void recover_from_snapshot_and_journal_tail() throws Exception {
+        // Given students enlisting and cancelling through a journaled engine, with a snapshot half way
+        Map<String, Section> sections = sections();
+        Map<Integer, Student> students = students();
+        List<Section> catalog = new ArrayList<>(sections.values());
+        try (EnlistmentJournal journal = EnlistmentJournal.open(directory, 4096)) {
+            try (EnlistmentEngine engine = new EnlistmentEngine(Executors.newFixedThreadPool(4), journal)) {
+                List<CompletableFuture<Void>> pending = new ArrayList<>();
+                for (Student student : students.values()) {
+                    for (int i = 0; i < 3; i++) {
+                        pending.add(engine.enlist(student, catalog.get((student.getStudentNumber() + i * 4) % SECTIONS)));
+                    }
+                }
+                CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+                journal.snapshot(students.values());
+                pending.clear();
+                for (Student student : students.values()) {
+                    if (student.getStudentNumber() % 2 == 0) {
+                        pending.add(engine.cancel(student, student.getSections().iterator().next()));
+                    }
+                }
+                CompletableFuture.allOf(pending.toArray(CompletableFuture<?>[]::new)).join();
+            }
+        }
+
+        // When the state is recovered into a fresh catalog
+        Map<String, Section> recoveredSections = sections();
+        Map<Integer, Student> recoveredStudents = students();
+        int replayed;
+        try (EnlistmentJournal journal = EnlistmentJournal.open(directory)) {
+            replayed = journal.recover(recoveredSections, recoveredStudents);
+        }
+
+        // Then only the cancellations after the snapshot should be replayed and every enlistment should be back
+        assertEquals(STUDENTS / 2, replayed);
+        for (Student student : students.values()) {
+            assertEquals(new HashSet<>(student.getSections()),
+                    new HashSet<>(recoveredStudents.get(student.getStudentNumber()).getSections()));
+        }
+        for (Section section : sections.values()) {
+            assertEquals(section.getNumberOfStudents(), recoveredSections.get(section.getSectionId()).getNumberOfStudents());
+        }
+    }
+
+    @Test
+    void reopen_journal_appends_after_existing_records() throws Exception {
+        // Given a journal with one enlistment
+        Map<String, Section> sections = sections();
+        Map<Integer, Student> students = students();
+        try (EnlistmentJournal journal = EnlistmentJournal.open(directory, 4096)) {
+            journal.commit(journal.appendEnlist(students.get(1), sections.get("S1"))).join();
+        }
+
+        // When it is reopened and another enlistment is appended
+        try (EnlistmentJournal journal = EnlistmentJournal.open(directory)) {
+            journal.commit(journal.appendEnlist(students.get(2), sections.get("S1"))).join();
+        }
+
+        // Then both enlistments should be recovered
+        Map<String, Section> recoveredSections = sections();
+        try (EnlistmentJournal journal = EnlistmentJournal.open(directory)) {
+            assertEquals(2, journal.recover(recoveredSections, students()));
+        }
+        assertEquals(2, recoveredSections.get("S1").getNumberOfStudents());
+    }
+}
@@ -0,0 +1,104 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalTime;
+import java.util.*;
+
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnlistmentMetricsTest {
+    LocalTime start = LocalTime.of(8,30);
+    LocalTime end = LocalTime.of(9,30);
+
+    @AfterEach
+    void uninstall() {
+        EnlistmentMetrics.install(EnlistmentMetrics.NOOP);
+    }
+
+    @Test
+    void record_enlistments_by_result_and_section_gauges() throws Exception {
+        // Given recording metrics watching a section with two seats
+        EnlistmentMetrics metrics = EnlistmentMetrics.recording(1);
+        EnlistmentMetrics.install(metrics);
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 2), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section clashing = new Section("B", new Schedule(Days.MTH, new Period(start,end)), new Room("G304", 2), new Subject("CSARCH", Collections.EMPTY_SET));
+        metrics.watch(section);
+
+        // When students enlist, clash, find the section full and cancel
+        Student student1 = new Student(1);
+        Student student2 = new Student(2);
+        student1.enlist(section);
+        student2.enlist(section);
+        assertThrows(ScheduleConflictException.class, () -> student1.enlist(clashing));
+        assertEquals(EnlistmentResult.SECTION_FULL, new Student(3).tryEnlist(section));
+        student2.cancelEnlistment(section);
+
+        // Then every call should be counted by result and the gauges should reflect the section
+        SortedMap<String, Number> snapshot = metrics.snapshot();
+        ObjectName name = metrics.registerMBean("com.group24h.enlistment:type=EnlistmentMetricsTest");
+        try {
+            assertAll(
+                    () -> assertEquals(4L, snapshot.get("enlist.attempts")),
+                    () -> assertEquals(2L, snapshot.get("enlist.enlisted")),
+                    () -> assertEquals(1L, snapshot.get("enlist.rejected.schedule_conflict")),
+                    () -> assertEquals(1L, snapshot.get("enlist.rejected.section_full")),
+                    () -> assertEquals(1L, snapshot.get("cancel.count")),
+                    () -> assertEquals(4L, snapshot.get("enlist.latency.count")),
+                    () -> assertTrue(snapshot.get("enlist.latency.p99").longValue() > 0),
+                    () -> assertEquals(0.5, snapshot.get("section.A.fill")),
+                    () -> assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "enlist.enlisted"))
+            );
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+
+    @Test
+    void swaps_are_not_counted_as_enlistments() {
+        // Given recording metrics and a student in a section
+        EnlistmentMetrics metrics = EnlistmentMetrics.recording(1);
+        EnlistmentMetrics.install(metrics);
+        Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+        Section oldSection = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 2), subject);
+        Section newSection = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("G304", 2), subject);
+        Section full = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("G305", 0), subject);
+        Student student = new Student(1);
+        student.enlist(oldSection);
+
+        // When the student swaps once and is rejected once
+        student.swap(oldSection, newSection);
+        assertEquals(EnlistmentResult.SECTION_FULL, student.trySwap(newSection, full));
+
+        // Then the swaps should have counters of their own and leave the enlistment attempts alone
+        SortedMap<String, Number> snapshot = metrics.snapshot();
+        assertAll(
+                () -> assertEquals(1L, snapshot.get("enlist.attempts")),
+                () -> assertEquals(2L, snapshot.get("swap.attempts")),
+                () -> assertEquals(1L, snapshot.get("swap.swapped")),
+                () -> assertEquals(1L, snapshot.get("swap.rejected.section_full")),
+                () -> assertEquals(2L, snapshot.get("swap.latency.count"))
+        );
+    }
+
+    @Test
+    void histogram_percentiles_within_bucket_precision() {
+        // Given a histogram of the values 1 to 10000 ns
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+
+        // When percentiles are read
+        // Then they should be within the 1/32 bucket precision
+        assertAll(
+                () -> assertEquals(10_000, histogram.getCount()),
+                () -> assertEquals(5_000, histogram.valueAtPercentile(50), 5_000 / 32.0),
+                () -> assertEquals(9_900, histogram.valueAtPercentile(99), 9_900 / 32.0),
+                () -> assertEquals(10_000, histogram.getMax(), 10_000 / 32.0)
+        );
+    }
+}
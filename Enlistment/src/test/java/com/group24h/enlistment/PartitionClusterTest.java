@@ -0,0 +1,101 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionClusterTest {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void enlist_across_partitions_all_or_nothing() {
+        // Given sections spread over three nodes, one of them full and one clashing with another
+        PartitionCluster cluster = new PartitionCluster(3, 16, executor);
+        Section mth = section("P1", Days.MTH, LocalTime.of(8,30), 30, "CSARCH");
+        Section tf = section("P2", Days.TF, LocalTime.of(8,30), 30, "STSWENG");
+        Section full = section("P3", Days.WS, LocalTime.of(8,30), 1, "CSALGCM");
+        Section clashing = section("P4", Days.MTH, LocalTime.of(9,0), 30, "CCPROG1");
+        List.of(mth, tf, full, clashing).forEach(cluster::addSection);
+        new Student(99).enlist(full);
+        PartitionCoordinator coordinator = cluster.getCoordinator();
+        Student student = new Student(1);
+
+        // When the student enlists in batches that include the full and the clashing section, then in one that fits
+        EnlistmentResult withFull = coordinator.enlistAll(student, List.of(mth, tf, full)).join();
+        EnlistmentResult withClash = coordinator.enlistAll(student, List.of(tf, clashing, mth)).join();
+        EnlistmentResult fitting = coordinator.enlistAll(student, List.of(mth, tf)).join();
+        // and a conflict with a section on another node is checked against the student's schedule
+        EnlistmentResult clashAfter = coordinator.enlist(student, clashing).join();
+
+        // Then the failed batches should leave no seat taken and the last one should enlist in both sections
+        assertAll(
+                () -> assertEquals(EnlistmentResult.SECTION_FULL, withFull),
+                () -> assertEquals(EnlistmentResult.SCHEDULE_CONFLICT, withClash),
+                () -> assertEquals(EnlistmentResult.ENLISTED, fitting),
+                () -> assertEquals(EnlistmentResult.SCHEDULE_CONFLICT, clashAfter),
+                () -> assertEquals(List.of(mth, tf), new ArrayList<>(student.getSections())),
+                () -> assertEquals(1, mth.getNumberOfStudents()),
+                () -> assertEquals(1, tf.getNumberOfStudents()),
+                () -> assertEquals(0, clashing.getNumberOfStudents()),
+                () -> assertTrue(mth.hasStudent(1))
+        );
+
+        // And cancelling through the coordinator should give the seat back on the owning node
+        coordinator.cancel(student, tf).join();
+        assertAll(
+                () -> assertEquals(0, tf.getNumberOfStudents()),
+                () -> assertEquals(List.of(mth), new ArrayList<>(student.getSections()))
+        );
+    }
+
+    @Test
+    void enlist_during_rebalance_never_overbooks() throws Exception {
+        // Given two nodes, a section with 20 seats and 200 students who want it
+        PartitionCluster cluster = new PartitionCluster(2, 8, executor);
+        Section section = section("HOT", Days.MTH, LocalTime.of(8,30), 20, "CSARCH");
+        cluster.addSection(section);
+        int partition = cluster.getPartitions().partitionOf("HOT");
+        cluster.addNode();
+
+        // When they all enlist while the section's partition keeps moving between three nodes
+        List<Student> students = new ArrayList<>();
+        List<CompletableFuture<EnlistmentResult>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Student student = new Student(i);
+            students.add(student);
+            results.add(cluster.getCoordinator().enlist(student, section));
+            if (i % 20 == 0) {
+                cluster.move(partition, (i / 20) % 3);
+            }
+        }
+        cluster.rebalance();
+        CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).join();
+
+        // Then exactly as many students as seats should be enlisted, on both sides
+        long enlisted = results.stream().filter(result -> result.join().isSuccess()).count();
+        long withSection = students.stream().filter(student -> student.isEnlistedIn(section)).count();
+        assertAll(
+                () -> assertEquals(20, enlisted),
+                () -> assertEquals(20, withSection),
+                () -> assertEquals(20, section.getNumberOfStudents()),
+                () -> assertEquals(20, section.getClassList().size()),
+                () -> assertSame(section, cluster.nodeFor("HOT").getSection("HOT"))
+        );
+    }
+
+    private static Section section(String id, Days days, LocalTime start, int capacity, String subject) {
+        return new Section(id, Schedule.of(days, start, start.plusHours(1)), new Room("R" + id, capacity),
+                new Subject(subject, Collections.EMPTY_SET));
+    }
+}
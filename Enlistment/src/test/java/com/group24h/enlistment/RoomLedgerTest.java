@@ -0,0 +1,68 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomLedgerTest {
+    Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+
+    @Test
+    void book_sections_same_room_different_schedules() {
+        // Given a ledger and two sections in the same room at different times
+        RoomLedger ledger = new RoomLedger();
+        Room room = new Room("G303", 30);
+        Section sec1 = new Section("A", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), room, subject);
+        Section sec2 = new Section("B", Schedule.of(Days.MTH, LocalTime.of(10,0), LocalTime.of(11,30)), room, subject);
+
+        // When both sections are booked
+        ledger.book(sec1);
+        ledger.book(sec2);
+
+        // Then the room should be taken at both times
+        assertAll(
+                () -> assertFalse(ledger.isFree(room, sec1.getSchedule())),
+                () -> assertFalse(ledger.isFree(room, sec2.getSchedule())),
+                () -> assertTrue(ledger.isFree(room, Schedule.of(Days.TF, LocalTime.of(8,30), LocalTime.of(10,0))))
+        );
+    }
+
+    @Test
+    void book_sections_same_room_overlapping_schedules() {
+        // Given a ledger and a section booked in a room
+        RoomLedger ledger = new RoomLedger();
+        Room room = new Room("G303", 30);
+        ledger.book(new Section("A", Schedule.of(Days.TF, LocalTime.of(9,0), LocalTime.of(10,30)), room, subject));
+
+        // When another section is booked in an equal room at an overlapping time
+        Section overlapping = new Section("B", Schedule.of(Days.TF, LocalTime.of(10,0), LocalTime.of(11,0)), new Room("G303", 30), subject);
+
+        // Then an exception should be thrown
+        assertThrows(RoomConflictException.class, () -> ledger.book(overlapping));
+    }
+
+    @Test
+    void find_free_rooms_with_capacity() {
+        // Given rooms of different sizes, one of which is booked
+        RoomLedger ledger = new RoomLedger();
+        Room small = new Room("S1", 10);
+        Room medium = new Room("M1", 30);
+        Room large = new Room("L1", 50);
+        Room larger = new Room("L2", 60);
+        List.of(small, medium, large, larger).forEach(ledger::addRoom);
+        Schedule schedule = Schedule.of(Days.WS, LocalTime.of(13,0), LocalTime.of(14,30));
+        Section booked = new Section("A", Schedule.of(Days.WS, LocalTime.of(14,0), LocalTime.of(15,0)), larger, subject);
+        ledger.book(booked);
+
+        // When free rooms with at least 30 seats are looked up
+        // Then only the free rooms that are big enough should be found, largest first
+        assertEquals(List.of(large, medium), ledger.findFreeRooms(schedule, 30));
+
+        // And the booked room should be found again once its section is released
+        ledger.release(booked);
+        assertEquals(List.of(larger, large, medium), ledger.findFreeRooms(schedule, 30));
+    }
+}
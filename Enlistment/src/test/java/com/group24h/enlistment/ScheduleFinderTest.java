@@ -0,0 +1,92 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleFinderTest {
+    Subject csarch = new Subject("CSARCH", Collections.EMPTY_SET);
+    Subject stsweng = new Subject("STSWENG", Collections.EMPTY_SET);
+    Subject csalgcm = new Subject("CSALGCM", List.of(csarch));
+
+    @Test
+    void find_conflict_free_timetables_best_first() {
+        // Given two subjects whose first sections clash and whose other sections leave different gaps
+        Section arch1 = new Section("A1", Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 30), csarch);
+        Section arch2 = new Section("A2", Schedule.of(Days.MTH, LocalTime.of(13,0), LocalTime.of(14,30)), new Room("G302", 30), csarch);
+        Section sweng1 = new Section("S1", Schedule.of(Days.MTH, LocalTime.of(9,0), LocalTime.of(10,30)), new Room("G303", 30), stsweng);
+        Section sweng2 = new Section("S2", Schedule.of(Days.MTH, LocalTime.of(14,30), LocalTime.of(16,0)), new Room("G304", 30), stsweng);
+        ScheduleFinder finder = new ScheduleFinder(List.of(arch1, arch2, sweng1, sweng2));
+        Student student = new Student(1);
+
+        // When timetables are searched for both subjects
+        List<Timetable> timetables = finder.find(student, List.of(csarch, stsweng), 5, Duration.ofSeconds(1));
+
+        // Then only the three conflict-free combinations should be returned, the one without gaps first
+        assertAll(
+                () -> assertEquals(3, timetables.size()),
+                () -> assertEquals(Set.of(arch2, sweng2), new HashSet<>(timetables.get(0).getSections())),
+                () -> assertEquals(0, timetables.get(0).getIdleSlots()),
+                () -> assertTrue(timetables.stream().noneMatch(t -> t.getSections().containsAll(List.of(arch1, sweng1)))),
+                () -> assertTrue(student.getSections().isEmpty())
+        );
+    }
+
+    @Test
+    void find_skips_full_sections_and_missing_prerequisites() {
+        // Given a full section and a subject whose prerequisite the student has not taken
+        Section full = new Section("A1", Schedule.of(Days.TF, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 1), csarch);
+        full.addEnlistedStudent();
+        Section algcm = new Section("C1", Schedule.of(Days.WS, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G302", 30), csalgcm);
+        ScheduleFinder finder = new ScheduleFinder(List.of(full, algcm));
+
+        // When timetables are searched for either subject
+        // Then none should be found
+        assertAll(
+                () -> assertTrue(finder.find(new Student(1), List.of(csarch), 5, Duration.ofSeconds(1)).isEmpty()),
+                () -> assertTrue(finder.find(new Student(2), List.of(csalgcm), 5, Duration.ofSeconds(1)).isEmpty())
+        );
+    }
+
+    @Test
+    void find_without_subjects() {
+        // Given a finder with a section
+        ScheduleFinder finder = new ScheduleFinder(List.of(
+                new Section("A1", Schedule.of(Days.TF, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G301", 30), csarch)));
+
+        // When timetables are searched for no subjects
+        // Then the request should be rejected instead of returning an empty timetable
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> finder.find(new Student(1), Collections.emptyList(), 5, Duration.ofSeconds(1))),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> finder.findAndEnlist(new Student(2), Collections.emptyList(), 5, Duration.ofSeconds(1)))
+        );
+    }
+
+    @Test
+    void find_and_enlist_best_timetable() {
+        // Given a student who already has a class in the morning
+        Section enlisted = new Section("E1", Schedule.of(Days.TF, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("G300", 30), csalgcm);
+        Section clashing = new Section("A1", Schedule.of(Days.TF, LocalTime.of(9,0), LocalTime.of(10,0)), new Room("G301", 30), csarch);
+        Section open = new Section("A2", Schedule.of(Days.TF, LocalTime.of(10,0), LocalTime.of(11,0)), new Room("G302", 30), csarch);
+        Student student = new Student(1, Collections.emptyList(), List.of(csarch));
+        student.enlist(enlisted);
+        ScheduleFinder finder = new ScheduleFinder(List.of(clashing, open));
+
+        // When the best timetable for the subject is found and enlisted
+        Optional<Timetable> timetable = finder.findAndEnlist(student, List.of(csarch), 3, Duration.ofSeconds(1));
+
+        // Then the student should be enlisted in the section that fits their schedule
+        assertAll(
+                () -> assertTrue(timetable.isPresent()),
+                () -> assertTrue(student.isEnlistedIn(open)),
+                () -> assertFalse(student.isEnlistedIn(clashing)),
+                () -> assertEquals(1, open.getNumberOfStudents())
+        );
+    }
+}
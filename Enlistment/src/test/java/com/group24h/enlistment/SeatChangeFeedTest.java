@@ -0,0 +1,131 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatChangeFeedTest {
+    // publishChanges is called by the tests, the ticker never gets to run
+    SeatChangeFeed feed = new SeatChangeFeed(Duration.ofHours(1), Runnable::run);
+
+    @AfterEach
+    void close() {
+        feed.close();
+    }
+
+    @Test
+    void coalesce_bursts_into_one_change_per_interval() {
+        // Given a subscriber following a section with unbounded demand
+        Subject subject = new Subject("CSARCH", Collections.EMPTY_SET);
+        Section section = section("F1", subject, 30);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        feed.section(section).subscribe(subscriber);
+
+        // When ten students enlist in one interval, and in the next one a student enlists and cancels
+        for (int i = 0; i < 10; i++) {
+            new Student(i).enlist(section);
+        }
+        feed.publishChanges();
+        Student student = new Student(10);
+        student.enlist(section);
+        student.cancelEnlistment(section);
+        feed.publishChanges();
+
+        // Then the subscriber should get the counts it started from and one change for the burst
+        assertEquals(List.of(new SeatChange(section, 0, 30), new SeatChange(section, 10, 20)), subscriber.received);
+
+        // And closing the feed should complete it
+        feed.close();
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void slow_subscriber_gets_only_the_latest_change_per_section() {
+        // Given a subject with three sections and a subscriber that takes one change at a time
+        Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+        List<Section> sections = List.of(section("F2", subject, 5), section("F3", subject, 5), section("F4", subject, 5));
+        feed.watchAll(sections);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        feed.subject(subject).subscribe(subscriber);
+
+        // When every section fills up over several intervals without the subscriber asking for more
+        int studentNumber = 0;
+        for (int seat = 0; seat < 5; seat++) {
+            for (Section section : sections) {
+                new Student(studentNumber++).enlist(section);
+            }
+            feed.publishChanges();
+        }
+        List<SeatChange> beforeRequest = new ArrayList<>(subscriber.received);
+        subscriber.subscription.request(10);
+
+        // Then enlisting should never have waited for the subscriber, which should catch up on the latest counts only
+        Set<SeatChange> full = new HashSet<>();
+        sections.forEach(section -> full.add(new SeatChange(section, 5, 0)));
+        assertAll(
+                () -> assertEquals(1, beforeRequest.size()),
+                () -> assertEquals(0, beforeRequest.get(0).getEnlisted()),
+                () -> assertEquals(4, subscriber.received.size()),
+                () -> assertEquals(full, new HashSet<>(subscriber.received.subList(1, 4))),
+                () -> assertTrue(sections.stream().allMatch(section -> section.getNumberOfStudents() == 5))
+        );
+    }
+
+    @Test
+    void non_positive_request_is_an_error() {
+        // Given a subscriber that requests nothing
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+
+        // When it subscribes
+        feed.section(section("F5", new Subject("CCPROG3", Collections.EMPTY_SET), 5)).subscribe(subscriber);
+
+        // Then it should get an error and nothing else
+        assertAll(
+                () -> assertTrue(subscriber.error instanceof IllegalArgumentException),
+                () -> assertTrue(subscriber.received.isEmpty())
+        );
+    }
+
+    private static Section section(String id, Subject subject, int capacity) {
+        return new Section(id, Schedule.of(Days.MTH, LocalTime.of(8,30), LocalTime.of(10,0)), new Room("R" + id, capacity), subject);
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<SeatChange> {
+        final long initialRequest;
+        final List<SeatChange> received = new CopyOnWriteArrayList<>();
+        Flow.Subscription subscription;
+        volatile boolean completed;
+        volatile Throwable error;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(SeatChange item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.*;
 
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -48,6 +49,23 @@ class StudentTest {
     }
 
 
+    @Test
+    void enlist_two_sections_overlapping_schedule() {
+        // Given a student & two sections on the same days whose periods partially overlap
+        Student student = new Student(1);
+        Section sec1 = new Section("A", new Schedule(Days.TF, new Period(LocalTime.of(10,0), LocalTime.of(11,30))), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sec2 = new Section("B", new Schedule(Days.TF, new Period(LocalTime.of(11,0), LocalTime.of(12,0))), new Room("G304", 30), new Subject("CSARCH", Collections.EMPTY_SET));
+        Section sec3 = new Section("C", new Schedule(Days.TF, new Period(LocalTime.of(11,30), LocalTime.of(13,0))), new Room("G305", 30), new Subject("CSALGCM", Collections.EMPTY_SET));
+
+        // When the student enlists in the first section
+        student.enlist(sec1);
+
+        // Then the overlapping section is rejected but the back-to-back one is not
+        assertThrows(ScheduleConflictException.class, () -> student.enlist(sec2));
+        student.enlist(sec3);
+        assertEquals(2, student.getSections().size());
+    }
+
     @Test
     void enlist_within_room_capacity() {
         // Given two students and one section with room capacity 5
@@ -121,6 +139,80 @@ class StudentTest {
         }
     }
 
+    @Test
+    void enlist_concurrent_large_section_never_overbooks() throws Exception {
+        // Given many more students than seats in a large section
+        final int CAPACITY = 200;
+        final int STUDENTS = 1000;
+        Section section = new Section("X", new Schedule(Days.MTH, new Period(start,end)), new Room("Y", CAPACITY), new Subject("STSWENG", Collections.EMPTY_SET));
+        CountDownLatch latch = new CountDownLatch(1);
+        List<EnlistmentThread> threads = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            threads.add(new EnlistmentThread(new Student(i), section, latch));
+        }
+        // When they all enlist concurrently
+        threads.forEach(Thread::start);
+        latch.countDown();
+        for (EnlistmentThread thread : threads) {
+            thread.join();
+        }
+        // Then the section should be exactly full
+        assertEquals(CAPACITY, section.getNumberOfStudents());
+    }
+
+    @Test
+    void enlist_concurrent_never_reports_full_while_seats_remain() throws Exception {
+        // Given threads whose students together never need more seats than the section has
+        final int CAPACITY = 200;
+        final int THREADS = 8;
+        final int ROUNDS = 200;
+        Section section = new Section("X", new Schedule(Days.MTH, new Period(start,end)), new Room("Y", CAPACITY), new Subject("STSWENG", Collections.EMPTY_SET));
+        CountDownLatch latch = new CountDownLatch(1);
+        List<EnlistmentResult> unexpected = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < CAPACITY / THREADS; i++) {
+                students.add(new Student(t * CAPACITY + i));
+            }
+            threads.add(new Thread(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int round = 0; round < ROUNDS; round++) {
+                    // fill this thread's share, taking the section through batching, draining and back
+                    for (Student student : students) {
+                        EnlistmentResult result = student.tryEnlist(section);
+                        if (!result.isSuccess()) {
+                            unexpected.add(result);
+                        }
+                    }
+                    for (Student student : students) {
+                        if (student.getSections().contains(section)) {
+                            student.cancelEnlistment(section);
+                        }
+                    }
+                }
+            }));
+        }
+
+        // When they all enlist and cancel concurrently
+        threads.forEach(Thread::start);
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then no enlistment should have been rejected and every seat should be back
+        assertAll(
+                () -> assertEquals(List.of(), unexpected),
+                () -> assertEquals(0, section.getNumberOfStudents()),
+                () -> assertEquals(CAPACITY, section.getAvailableSeats())
+        );
+    }
+
     private static class EnlistmentThread extends Thread {
         private final Student student;
         private final Section section;
@@ -147,6 +239,84 @@ class StudentTest {
         }
     }
 
+    @Test
+    void enlist_all_sections_no_conflict() {
+        // Given a student & three sections without conflicts
+        Student student = new Student(1);
+        Section sec1 = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sec2 = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("G303", 30), new Subject("CSARCH", Collections.EMPTY_SET));
+        Section sec3 = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("G303", 30), new Subject("CSALGCM", Collections.EMPTY_SET));
+
+        // When the student enlists in all of them at once
+        student.enlistAll(List.of(sec1, sec2, sec3));
+
+        // Then all three sections should be found in the student and each holds one seat
+        Collection<Section> sections = student.getSections();
+        assertAll(
+                () -> assertTrue(sections.containsAll(List.of(sec1, sec2, sec3))),
+                () -> assertEquals(3, sections.size()),
+                () -> assertEquals(1, sec1.getNumberOfStudents()),
+                () -> assertEquals(1, sec3.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void enlist_all_sections_one_full() {
+        // Given a student, two open sections and one full section
+        Student student = new Student(1);
+        Section sec1 = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sec2 = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("G303", 30), new Subject("CSARCH", Collections.EMPTY_SET));
+        Section full = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("X", 5), new Subject("CSALGCM", Collections.EMPTY_SET), 5);
+
+        // When the student enlists in all of them at once
+        // Then an exception should be thrown and no seat should be held
+        assertThrows(CapacityException.class, () -> student.enlistAll(List.of(sec1, sec2, full)));
+        assertAll(
+                () -> assertTrue(student.getSections().isEmpty()),
+                () -> assertEquals(0, sec1.getNumberOfStudents()),
+                () -> assertEquals(0, sec2.getNumberOfStudents()),
+                () -> assertEquals(5, full.getNumberOfStudents())
+        );
+        student.enlist(sec1);
+    }
+
+    @Test
+    void enlist_all_sections_conflicting_with_each_other() {
+        // Given a student & two sections in the same batch with the same schedule
+        Student student = new Student(1);
+        Schedule sameSchedule = new Schedule(Days.MTH, new Period(start,end));
+        Section sec1 = new Section("A", sameSchedule, new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sec2 = new Section("B", sameSchedule, new Room("G304", 30), new Subject("CSARCH", Collections.EMPTY_SET));
+
+        // When the student enlists in both at once
+        // Then an exception should be thrown and neither section should be enlisted
+        assertThrows(ScheduleConflictException.class, () -> student.enlistAll(List.of(sec1, sec2)));
+        assertEquals(0, student.getSections().size());
+    }
+
+    @Test
+    void try_enlist_reports_rejections_without_throwing() {
+        // Given a student enlisted in a section, and a full section, a conflicting section and a section with a missing prerequisite
+        Student student = new Student(1);
+        Subject prerequisite = new Subject("W", Collections.EMPTY_SET);
+        Section enlisted = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section conflicting = new Section("B", new Schedule(Days.MTH, new Period(start,end)), new Room("G304", 30), new Subject("CSARCH", Collections.EMPTY_SET));
+        Section full = new Section("C", new Schedule(Days.TF, new Period(start,end)), new Room("X", 1), new Subject("CSALGCM", Collections.EMPTY_SET), 1);
+        Section missingPrerequisite = new Section("D", new Schedule(Days.WS, new Period(start,end)), new Room("G305", 30), new Subject("X", List.of(prerequisite)));
+        student.enlist(enlisted);
+
+        // When the student tries to enlist in each of them
+        // Then each rejection should be reported as a result and nothing should be enlisted
+        assertAll(
+                () -> assertEquals(EnlistmentResult.SCHEDULE_CONFLICT, student.tryEnlist(conflicting)),
+                () -> assertEquals(EnlistmentResult.SECTION_FULL, student.tryEnlist(full)),
+                () -> assertEquals(EnlistmentResult.MISSING_PREREQUISITE, student.tryEnlist(missingPrerequisite)),
+                () -> assertEquals("missing prerequisite: W", EnlistmentResult.MISSING_PREREQUISITE.describe(student, missingPrerequisite)),
+                () -> assertEquals(1, student.getSections().size()),
+                () -> assertEquals(1, full.getNumberOfStudents())
+        );
+    }
+
     @Test
     void cancel_enlisted_section() {
         // Given a student enlisted in a section
@@ -165,6 +335,289 @@ class StudentTest {
         );
     }
 
+    @Test
+    void cancel_enlisted_section_promotes_waitlisted_student() {
+        // Given a full section and three students waitlisted for it, the first of whom enlists elsewhere at the same time
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 1), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sameTime = new Section("B", new Schedule(Days.MTH, new Period(start,end)), new Room("Y", 10), new Subject("CSARCH", Collections.EMPTY_SET));
+        Student enlisted = new Student(1);
+        Student busy = new Student(2);
+        Student waiting = new Student(3);
+        Student last = new Student(4);
+        enlisted.enlist(section);
+        CompletableFuture<EnlistmentResult> busyResult = busy.enlistOrWaitlist(section);
+        CompletableFuture<EnlistmentResult> waitingResult = waiting.enlistOrWaitlist(section);
+        CompletableFuture<EnlistmentResult> lastResult = last.enlistOrWaitlist(section);
+        busy.enlist(sameTime);
+
+        // When the enlisted student cancels
+        enlisted.cancelEnlistment(section);
+
+        // Then the seat should skip the student with a conflict and go to the next one in line
+        assertAll(
+                () -> assertEquals(EnlistmentResult.SCHEDULE_CONFLICT, busyResult.getNow(null)),
+                () -> assertEquals(EnlistmentResult.ENLISTED, waitingResult.getNow(null)),
+                () -> assertFalse(lastResult.isDone()),
+                () -> assertEquals(List.of(section), new ArrayList<>(waiting.getSections())),
+                () -> assertEquals(1, section.getNumberOfStudents()),
+                () -> assertEquals(1, section.getWaitlistSize())
+        );
+    }
+
+    @Test
+    void cancel_concurrently_with_waitlisted_students() throws Exception {
+        // Given a full section with 5 seats and 45 more students waiting for it
+        final int CAPACITY = 5;
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", CAPACITY), new Subject("STSWENG", Collections.EMPTY_SET));
+        List<Student> students = new ArrayList<>();
+        Map<Student, CompletableFuture<EnlistmentResult>> results = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            Student student = new Student(i);
+            students.add(student);
+            results.put(student, student.enlistOrWaitlist(section));
+        }
+
+        // When every student cancels as soon as they are enlisted, from many threads at once
+        List<Thread> threads = new ArrayList<>();
+        for (Student student : students) {
+            Thread thread = new Thread(() -> {
+                results.get(student).join();
+                student.cancelEnlistment(section);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        // Then every student should have been promoted in turn and the section should be empty again
+        assertAll(
+                () -> assertTrue(results.values().stream().allMatch(result -> result.getNow(null) == EnlistmentResult.ENLISTED)),
+                () -> assertEquals(0, section.getNumberOfStudents()),
+                () -> assertEquals(0, section.getWaitlistSize())
+        );
+    }
+
+    @Test
+    void cancel_waitlist_entry() {
+        // Given a full section and a waitlisted student who gives up
+        Section section = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 1), new Subject("STSWENG", Collections.EMPTY_SET));
+        Student enlisted = new Student(1);
+        Student waiting = new Student(2);
+        enlisted.enlist(section);
+        CompletableFuture<EnlistmentResult> waitingResult = waiting.enlistOrWaitlist(section);
+        waitingResult.cancel(false);
+
+        // When the enlisted student cancels
+        enlisted.cancelEnlistment(section);
+
+        // Then the seat should go back to the section
+        assertAll(
+                () -> assertTrue(waiting.getSections().isEmpty()),
+                () -> assertEquals(0, section.getNumberOfStudents()),
+                () -> assertEquals(0, section.getWaitlistSize())
+        );
+        new Student(3).enlist(section);
+    }
+
+    @Test
+    void swap_to_overlapping_section_of_same_subject() {
+        // Given a student in a full section with another student waiting for it
+        Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+        Section oldSection = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 1), subject);
+        Section newSection = new Section("B", new Schedule(Days.MTH, new Period(LocalTime.of(9,0), LocalTime.of(10,0))), new Room("Y", 1), subject);
+        Student student = new Student(1);
+        Student waiting = new Student(2);
+        student.enlist(oldSection);
+        CompletableFuture<EnlistmentResult> waitingResult = waiting.enlistOrWaitlist(oldSection);
+
+        // When the student swaps to a section of the same subject that overlaps the old one
+        student.swap(oldSection, newSection);
+
+        // Then the student should be in the new section only and the old seat should go to the waiting student
+        assertAll(
+                () -> assertEquals(List.of(newSection), new ArrayList<>(student.getSections())),
+                () -> assertEquals(1, newSection.getNumberOfStudents()),
+                () -> assertEquals(EnlistmentResult.ENLISTED, waitingResult.getNow(null)),
+                () -> assertEquals(1, oldSection.getNumberOfStudents()),
+                () -> assertFalse(oldSection.hasStudent(1))
+        );
+    }
+
+    @Test
+    void rejected_swap_keeps_old_section() {
+        // Given a student in two sections, a full section and one clashing with the other enlisted section
+        Section oldSection = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 10), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section other = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("Y", 10), new Subject("CSARCH", Collections.EMPTY_SET));
+        Section full = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("Z", 1), new Subject("STSWENG", Collections.EMPTY_SET));
+        Section clashing = new Section("D", new Schedule(Days.TF, new Period(start,end)), new Room("W", 10), new Subject("STSWENG", Collections.EMPTY_SET));
+        Student student = new Student(1);
+        student.enlist(oldSection);
+        student.enlist(other);
+        new Student(2).enlist(full);
+
+        // When the student tries to swap to either of them
+        // Then the swap should be rejected and the student should keep the old seat
+        assertAll(
+                () -> assertThrows(CapacityException.class, () -> student.swap(oldSection, full)),
+                () -> assertEquals(EnlistmentResult.SCHEDULE_CONFLICT, student.trySwap(oldSection, clashing)),
+                () -> assertEquals(List.of(oldSection, other), new ArrayList<>(student.getSections())),
+                () -> assertEquals(1, oldSection.getNumberOfStudents()),
+                () -> assertEquals(0, clashing.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void rejected_swap_to_other_catalog_keeps_enlisted_subject() {
+        // Given a student in a section and a section of a subject from another catalog
+        Subject math = new Subject("MATH", Collections.EMPTY_SET);
+        Section oldSection = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 10), math);
+        Section foreign = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("Y", 10),
+                new Subject(new SubjectCatalog(), "PHYS", Collections.EMPTY_SET));
+        Section sameSubject = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("Z", 10), math);
+        Student student = new Student(1);
+        student.enlist(oldSection);
+
+        // When the student tries to swap to the foreign section
+        assertThrows(IllegalArgumentException.class, () -> student.trySwap(oldSection, foreign));
+
+        // Then the student should still count as enlisted in the old section's subject
+        assertAll(
+                () -> assertEquals(EnlistmentResult.SUBJECT_CONFLICT, student.tryEnlist(sameSubject)),
+                () -> assertEquals(List.of(oldSection), new ArrayList<>(student.getSections())),
+                () -> assertEquals(0, foreign.getNumberOfStudents())
+        );
+    }
+
+    @Test
+    void enlist_clashing_with_held_section() {
+        // Given a student holding a section whose seat is being reserved on another node
+        Student student = new Student(1);
+        Subject subject = new Subject("CSARCH", Collections.EMPTY_SET);
+        Section held = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), subject);
+        Section overlapping = new Section("B", new Schedule(Days.MTH, new Period(start,end)), new Room("G304", 30),
+                new Subject("STSWENG", Collections.EMPTY_SET));
+        Section sameSubject = new Section("C", new Schedule(Days.TF, new Period(start,end)), new Room("G305", 30), subject);
+        assertEquals(EnlistmentResult.ENLISTED, student.holdEnlistments(List.of(held)));
+
+        // When the student enlists in a section that overlaps the held one, or has the same subject
+        // Then the rejections should be the conflict exceptions naming the held section
+        ScheduleConflictException scheduleConflict = assertThrows(ScheduleConflictException.class,
+                () -> student.enlist(overlapping));
+        assertAll(
+                () -> assertTrue(scheduleConflict.getMessage().contains(held.toString())),
+                () -> assertThrows(SubjectConflictException.class, () -> student.enlist(sameSubject)),
+                () -> assertThrows(ScheduleConflictException.class, () -> student.enlistAll(List.of(overlapping, sameSubject)))
+        );
+
+        // And once the hold is released the overlapping section should be free to take
+        student.releaseHold(List.of(held));
+        student.enlist(overlapping);
+        assertEquals(List.of(overlapping), new ArrayList<>(student.getSections()));
+    }
+
+    @Test
+    void swap_concurrently_in_opposite_directions() throws Exception {
+        // Given two sections with one free seat each and a student in each of them
+        Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+        Section first = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("X", 2), subject);
+        Section second = new Section("B", new Schedule(Days.TF, new Period(start,end)), new Room("Y", 2), subject);
+        Student inFirst = new Student(1);
+        Student inSecond = new Student(2);
+        inFirst.enlist(first);
+        inSecond.enlist(second);
+
+        // When both students keep swapping back and forth at the same time
+        Thread forward = new Thread(() -> swapBackAndForth(inFirst, first, second));
+        Thread backward = new Thread(() -> swapBackAndForth(inSecond, second, first));
+        forward.start();
+        backward.start();
+        forward.join(5000);
+        backward.join(5000);
+
+        // Then neither should get stuck and each should end up in exactly one section
+        assertAll(
+                () -> assertFalse(forward.isAlive()),
+                () -> assertFalse(backward.isAlive()),
+                () -> assertEquals(1, inFirst.getSections().size()),
+                () -> assertEquals(1, inSecond.getSections().size()),
+                () -> assertEquals(2, first.getNumberOfStudents() + second.getNumberOfStudents()),
+                () -> assertEquals(first.getNumberOfStudents(), first.getClassList().size())
+        );
+    }
+
+    private static void swapBackAndForth(Student student, Section from, Section to) {
+        for (int i = 0; i < 1000; i++) {
+            if (student.trySwap(from, to).isSuccess()) {
+                Section swapped = from;
+                from = to;
+                to = swapped;
+            }
+        }
+    }
+
+    @Test
+    void class_list_follows_enlistment_and_cancellation() {
+        // Given two students enlisted in a section
+        Student student1 = new Student(1);
+        Student student2 = new Student(2);
+        Section sec = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        student1.enlist(sec);
+        student2.enlist(sec);
+
+        // When one of them cancels
+        student1.cancelEnlistment(sec);
+
+        // Then only the other should be on the class list and have the section
+        Set<Integer> classList = new HashSet<>();
+        sec.forEachStudent(classList::add);
+        assertAll(
+                () -> assertEquals(Set.of(2), classList),
+                () -> assertFalse(sec.hasStudent(1)),
+                () -> assertFalse(student1.isEnlistedIn(sec)),
+                () -> assertTrue(student2.isEnlistedIn(sec))
+        );
+    }
+
+    @Test
+    void snapshots_do_not_change_after_they_are_read() throws Exception {
+        // Given a student and a section, and snapshots of both taken before enlisting
+        Student student = new Student(1);
+        Section sec = new Section("A", new Schedule(Days.MTH, new Period(start,end)), new Room("G303", 30), new Subject("STSWENG", Collections.EMPTY_SET));
+        StudentSchedule before = student.getSections();
+        ClassList classListBefore = sec.getClassList();
+
+        // When the student enlists while another thread keeps reading
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (done.getCount() > 0) {
+                student.getSections().forEach(Objects::requireNonNull);
+                sec.getClassList().forEach(number -> assertEquals(1, number));
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 1000; i++) {
+            student.enlist(sec);
+            student.cancelEnlistment(sec);
+        }
+        student.enlist(sec);
+        done.countDown();
+        reader.join();
+
+        // Then the old snapshots should be unchanged and the new ones should carry later versions
+        StudentSchedule after = student.getSections();
+        assertAll(
+                () -> assertTrue(before.isEmpty()),
+                () -> assertTrue(classListBefore.isEmpty()),
+                () -> assertEquals(List.of(sec), after),
+                () -> assertEquals(2001, after.getVersion()),
+                () -> assertTrue(sec.getClassList().contains(1)),
+                () -> assertSame(after, student.getSections()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> after.add(sec))
+        );
+    }
+
     @Test
     void cancel_not_enlisted_section() {
         // Given a student and a section
@@ -269,6 +722,64 @@ class StudentTest {
         assertThrows(IllegalArgumentException.class, () -> student.enlist(sectionToBeEnlisted));
     }
 
+    @Test
+    void enlist_prerequisites_completed_through_chain() {
+        // Given a chain of prerequisites W -> X -> Y
+        Subject w = new Subject("W", Collections.EMPTY_SET);
+        Subject x = new Subject("X", List.of(w));
+        Subject y = new Subject("Y", List.of(x));
+        Section section = new Section("B",
+                new Schedule(Days.WS, new Period(start,end)),
+                new Room("Y", 10),
+                y);
+
+        // When the prerequisite sets are compiled
+        // Then Y should directly require only X
+        assertAll(
+                () -> assertEquals(1, y.getPrerequisiteIds().size()),
+                () -> assertTrue(y.getPrerequisiteIds().contains(x.getId()))
+        );
+
+        // And a student who only completed W cannot enlist, but one who completed X can
+        Student onlyW = new Student(1, Collections.EMPTY_SET, List.of(w));
+        Student withX = new Student(2, Collections.EMPTY_SET, List.of(x));
+        assertThrows(IllegalArgumentException.class, () -> onlyW.enlist(section));
+        withX.enlist(section);
+    }
+
+    @Test
+    void eligibility_follows_completed_subjects() {
+        // Given W, X requiring W, and Z requiring both W and X, and a student who completed nothing
+        Subject w = new Subject("W", Collections.EMPTY_SET);
+        Subject x = new Subject("X", List.of(w));
+        Subject z = new Subject("Z", List.of(w, x));
+        Section section = new Section("C", new Schedule(Days.WS, new Period(start,end)), new Room("Z", 10), z);
+        Student student = new Student(1);
+        boolean wBefore = student.isEligibleFor(w);
+        boolean xBefore = student.isEligibleFor(x);
+
+        // When grades are posted for W, then X
+        student.addCompletedSubject(w);
+        boolean xAfterW = student.isEligibleFor(x);
+        boolean zAfterW = student.isEligibleFor(z);
+        student.addCompletedSubject(x);
+        // and a subject requiring X is only created afterwards
+        Subject later = new Subject("LATER", List.of(x));
+
+        // Then each subject should become eligible once all its prerequisites are completed
+        assertAll(
+                () -> assertTrue(wBefore),
+                () -> assertFalse(xBefore),
+                () -> assertTrue(xAfterW),
+                () -> assertFalse(zAfterW),
+                () -> assertTrue(student.isEligibleFor(z)),
+                () -> assertTrue(student.isEligibleFor(later)),
+                () -> assertTrue(student.getEligibleSubjects().containsAll(List.of(z, later))),
+                () -> assertFalse(student.getEligibleSubjects().contains(w)),
+                () -> assertEquals(EnlistmentResult.ENLISTED, student.tryEnlist(section))
+        );
+    }
+
     @Test
     void time_period_is_valid(){
 
@@ -293,6 +804,25 @@ class StudentTest {
         //Then no exception should be thrown
     }
 
+    @Test
+    void period_and_schedule_factories_return_shared_instances() {
+        // Given periods and schedules built through the factories and the constructors
+        Period period = Period.of(start, end);
+        Schedule schedule = Schedule.of(Days.MTH, start, end);
+
+        // When the same times are requested again
+        // Then the same instances should be returned and they should equal constructed ones
+        assertAll(
+                () -> assertSame(period, Period.of(LocalTime.of(8,30), LocalTime.of(9,30))),
+                () -> assertSame(schedule, Schedule.of(Days.MTH, new Period(start, end))),
+                () -> assertEquals(new Period(start, end), period),
+                () -> assertEquals(new Schedule(Days.MTH, new Period(start, end)), schedule),
+                () -> assertEquals(new Schedule(Days.MTH, new Period(start, end)).hashCode(), schedule.hashCode()),
+                () -> assertNotEquals(Schedule.of(Days.TF, start, end), schedule),
+                () -> assertThrows(InvalidPeriodException.class, () -> Period.of(LocalTime.of(17,30), LocalTime.of(18,0)))
+        );
+    }
+
     @Test
     void time_period_is_not_of_30_minute_increment() {
 
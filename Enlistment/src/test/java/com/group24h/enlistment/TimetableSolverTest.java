@@ -0,0 +1,96 @@
+package com.group24h.enlistment;
+
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimetableSolverTest {
+    Room small = new Room("G301", 30);
+    Room large = new Room("G401", 50);
+    Subject subject = new Subject("STSWENG", Collections.EMPTY_SET);
+
+    @Test
+    void solve_fills_rooms_without_double_booking() {
+        // Given as many 90-minute sections as both rooms have slots, a third of them too big for the small room
+        List<SectionDemand> demands = new ArrayList<>();
+        for (int i = 0; i < 36; i++) {
+            demands.add(new SectionDemand("S" + i, new Subject("SUBJ" + (i % 12), Collections.EMPTY_SET), i % 3 == 0 ? 45 : 25, 3));
+        }
+        TimetableSolver solver = new TimetableSolver(List.of(small, large));
+
+        // When the sections are placed
+        TimetablePlan plan = solver.solve(demands, Duration.ofSeconds(5));
+
+        // Then every section should have a room that seats it and bookings should not clash
+        RoomLedger ledger = new RoomLedger();
+        Map<String, Section> sections = plan.createSections(ledger);
+        assertAll(
+                () -> assertTrue(plan.getUnplaced().isEmpty()),
+                () -> assertEquals(36, sections.size()),
+                () -> assertTrue(demands.stream().allMatch(demand ->
+                        sections.get(demand.getSectionId()).getRoom().getCapacity() >= demand.getExpectedStudents()))
+        );
+    }
+
+    @Test
+    void solve_reports_sections_that_do_not_fit() {
+        // Given more full-day sections than room-days and one bigger than every room
+        List<SectionDemand> demands = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            demands.add(new SectionDemand("S" + i, subject, 20, Period.SLOTS_PER_DAY));
+        }
+        demands.add(new SectionDemand("HUGE", subject, 100, 2));
+        TimetableSolver solver = new TimetableSolver(List.of(small));
+
+        // When the sections are placed
+        TimetablePlan plan = solver.solve(demands, Duration.ofSeconds(1));
+
+        // Then the ones left over should be reported as unplaced
+        assertAll(
+                () -> assertEquals(3, plan.getPlacements().size()),
+                () -> assertEquals(2, plan.getUnplaced().size()),
+                () -> assertTrue(plan.getUnplaced().stream().anyMatch(demand -> demand.getSectionId().equals("HUGE")))
+        );
+    }
+
+    @Test
+    void solve_without_sections() {
+        // Given a solver with rooms
+        TimetableSolver solver = new TimetableSolver(List.of(small, large));
+
+        // When no sections are placed
+        // Then the request should be rejected instead of returning an empty plan
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(Collections.emptyList(), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void resolve_keeps_unchanged_sections_in_place() {
+        // Given a solved term
+        List<SectionDemand> demands = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            demands.add(new SectionDemand("S" + i, new Subject("SUBJ" + i, Collections.EMPTY_SET), 25, 2));
+        }
+        TimetableSolver solver = new TimetableSolver(List.of(small, large));
+        TimetablePlan plan = solver.solve(demands, Duration.ofSeconds(1));
+
+        // When one section grows, one is dropped and one is added
+        TimetablePlan resolved = solver.resolve(plan,
+                List.of(new SectionDemand("S0", demands.get(0).getSubject(), 45, 2),
+                        new SectionDemand("NEW", subject, 20, 2)),
+                List.of("S1"), Duration.ofSeconds(1));
+
+        // Then the changes should be placed and the other sections should stay where they were
+        assertAll(
+                () -> assertTrue(resolved.getUnplaced().isEmpty()),
+                () -> assertNull(resolved.getPlacement("S1")),
+                () -> assertEquals(large, resolved.getPlacement("S0").getRoom()),
+                () -> assertNotNull(resolved.getPlacement("NEW")),
+                () -> assertTrue(demands.subList(2, 20).stream()
+                        .allMatch(demand -> plan.getPlacement(demand.getSectionId())
+                                .equals(resolved.getPlacement(demand.getSectionId()))))
+        );
+    }
+}